@@ -0,0 +1,73 @@
+package org.cheesy.cheesymodtest.bench;
+
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.world.item.Item;
+import org.cheesy.cheesymodtest.filter.RegistryFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// "Is this item in Config.items": the old HashSet<Item> against the compiled RegistryFilter bitset
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfigItemsBenchmark {
+    // How many items are in the configured set
+    @Param({"1", "16", "256"})
+    public int configured;
+
+    private Item[] queries;
+    private Set<Item> hashSet;
+    private RegistryFilter<Item> filter;
+
+    @Setup
+    public void setup() {
+        MinecraftBootstrap.init();
+        List<Item> all = BuiltInRegistries.ITEM.stream().toList();
+        Random random = new Random(42);
+
+        hashSet = new HashSet<>();
+        while (hashSet.size() < configured) {
+            hashSet.add(all.get(random.nextInt(all.size())));
+        }
+        filter = new RegistryFilter<>(BuiltInRegistries.ITEM);
+        filter.update(hashSet.stream().map(item -> BuiltInRegistries.ITEM.getKey(item).toString()).toList());
+
+        queries = new Item[1024];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = all.get(random.nextInt(all.size()));
+        }
+    }
+
+    @Benchmark
+    public void hashSetContains(Blackhole blackhole) {
+        for (Item item : queries) {
+            blackhole.consume(hashSet.contains(item));
+        }
+    }
+
+    @Benchmark
+    public void registryFilterContains(Blackhole blackhole) {
+        for (Item item : queries) {
+            blackhole.consume(filter.contains(item));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.cheesy.cheesymodtest.bench;
+
+import net.minecraftforge.eventbus.api.BusBuilder;
+import net.minecraftforge.eventbus.api.Event;
+import net.minecraftforge.eventbus.api.IEventBus;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Cost of posting one event to a single listener, registered the way Cheesymodtest.onServerStarting is
+// (@SubscribeEvent on a registered instance) versus through addListener with a method reference
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventBusDispatchBenchmark {
+    public static class BenchEvent extends Event {
+        int value;
+    }
+
+    public static class SubscriberListener {
+        @SubscribeEvent
+        public void onBenchEvent(BenchEvent event) {
+            event.value++;
+        }
+    }
+
+    private IEventBus subscribeBus;
+    private IEventBus addListenerBus;
+    private final BenchEvent event = new BenchEvent();
+
+    @Setup
+    public void setup() {
+        subscribeBus = BusBuilder.builder().build();
+        subscribeBus.register(new SubscriberListener());
+        addListenerBus = BusBuilder.builder().build();
+        addListenerBus.addListener(EventBusDispatchBenchmark::onBenchEvent);
+    }
+
+    private static void onBenchEvent(BenchEvent event) {
+        event.value++;
+    }
+
+    @Benchmark
+    public boolean subscribeEvent() {
+        return subscribeBus.post(event);
+    }
+
+    @Benchmark
+    public boolean addListener() {
+        return addListenerBus.post(event);
+    }
+
+    // Posting a new event each time, as Forge does for every tick event
+    @Benchmark
+    public boolean addListenerFreshEvent() {
+        return addListenerBus.post(new BenchEvent());
+    }
+}
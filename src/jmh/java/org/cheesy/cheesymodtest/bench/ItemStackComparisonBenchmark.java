@@ -0,0 +1,62 @@
+package org.cheesy.cheesymodtest.bench;
+
+import net.minecraft.core.component.DataComponents;
+import net.minecraft.network.chat.Component;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// ItemStack comparisons like the ones item merging does, with and without extra data components
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemStackComparisonBenchmark {
+    private ItemStack plainA;
+    private ItemStack plainB;
+    private ItemStack namedA;
+    private ItemStack namedB;
+
+    @Setup
+    public void setup() {
+        MinecraftBootstrap.init();
+        plainA = new ItemStack(Items.COBBLESTONE, 12);
+        plainB = new ItemStack(Items.COBBLESTONE, 30);
+        namedA = new ItemStack(Items.DIAMOND_SWORD);
+        namedA.set(DataComponents.CUSTOM_NAME, Component.literal("Cheese Cutter"));
+        namedB = namedA.copy();
+    }
+
+    @Benchmark
+    public boolean sameItemSameComponentsPlain() {
+        return ItemStack.isSameItemSameComponents(plainA, plainB);
+    }
+
+    @Benchmark
+    public boolean sameItemSameComponentsNamed() {
+        return ItemStack.isSameItemSameComponents(namedA, namedB);
+    }
+
+    @Benchmark
+    public boolean sameItem() {
+        return ItemStack.isSameItem(namedA, namedB);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return ItemStack.matches(namedA, namedB);
+    }
+}
@@ -0,0 +1,20 @@
+package org.cheesy.cheesymodtest.bench;
+
+import net.minecraft.SharedConstants;
+import net.minecraft.server.Bootstrap;
+
+// Benchmarks run outside of the game, so the registries have to be bootstrapped by hand before touching items
+final class MinecraftBootstrap {
+    private static boolean done;
+
+    private MinecraftBootstrap() {
+    }
+
+    static synchronized void init() {
+        if (!done) {
+            SharedConstants.tryDetectVersion();
+            Bootstrap.bootStrap();
+            done = true;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.cheesy.cheesymodtest.bench;
+
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraftforge.registries.ForgeRegistries;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// The string -> item path used when validating and loading config entries
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegistryLookupBenchmark {
+    private static final String NAME = "minecraft:iron_ingot";
+
+    private ResourceLocation parsed;
+
+    @Setup
+    public void setup() {
+        MinecraftBootstrap.init();
+        parsed = ResourceLocation.parse(NAME);
+    }
+
+    @Benchmark
+    public ResourceLocation parse() {
+        return ResourceLocation.parse(NAME);
+    }
+
+    // What validateItemName used to do for every entry
+    @Benchmark
+    public void parseAndForgeLookup(Blackhole blackhole) {
+        ResourceLocation id = ResourceLocation.parse(NAME);
+        blackhole.consume(ForgeRegistries.ITEMS.containsKey(id));
+        blackhole.consume(ForgeRegistries.ITEMS.getValue(id));
+    }
+
+    @Benchmark
+    public Object forgeLookup() {
+        return ForgeRegistries.ITEMS.getValue(parsed);
+    }
+
+    @Benchmark
+    public Object builtInLookup() {
+        return BuiltInRegistries.ITEM.getValue(parsed);
+    }
+}
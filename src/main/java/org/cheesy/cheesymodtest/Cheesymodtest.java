@@ -8,6 +8,7 @@ import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.event.BuildCreativeModeTabContentsEvent;
 import net.minecraftforge.event.server.ServerStartingEvent;
+import net.minecraftforge.event.server.ServerStoppingEvent;
 import net.minecraftforge.eventbus.api.IEventBus;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
@@ -16,6 +17,10 @@ import net.minecraftforge.fml.event.lifecycle.FMLClientSetupEvent;
 import net.minecraftforge.fml.event.lifecycle.FMLCommonSetupEvent;
 import net.minecraftforge.fml.javafmlmod.FMLJavaModLoadingContext;
 import net.minecraftforge.registries.ForgeRegistries;
+import org.cheesy.cheesymodtest.gametest.PerfGameTests;
+import org.cheesy.cheesymodtest.perf.LagSpikeProfiler;
+import org.cheesy.cheesymodtest.pregen.PregenScheduler;
+import org.cheesy.cheesymodtest.trace.StartupTrace;
 import org.slf4j.Logger;
 
 // The value here should match an entry in the META-INF/mods.toml file
@@ -31,6 +36,10 @@ public class Cheesymodtest {
     public Cheesymodtest(FMLJavaModLoadingContext context) {
         IEventBus modEventBus = context.getModEventBus();
 
+        // Time the loading phases when startup tracing is on, this has to go first to see everything
+        StartupTrace.register(modEventBus);
+        StartupTrace.Span constructSpan = StartupTrace.begin("Cheesymodtest constructor");
+
         // Register the commonSetup method for modloading
         modEventBus.addListener(this::commonSetup);
 
@@ -40,8 +49,16 @@ public class Cheesymodtest {
         // Register the item to a creative tab
         modEventBus.addListener(this::addCreative);
 
+        // Register the performance GameTest functions, the test instances themselves live in data/cheesymodtest/test_instance
+        PerfGameTests.register(modEventBus);
+
+        // Register the chunk ticket type used by pre-generation
+        PregenScheduler.register(modEventBus);
+
         // Register our mod's ForgeConfigSpec so that Forge can create and load the config file for us
         context.registerConfig(ModConfig.Type.COMMON, Config.SPEC);
+
+        constructSpan.close();
     }
 
     private void commonSetup(final FMLCommonSetupEvent event) {
@@ -59,6 +76,14 @@ public class Cheesymodtest {
     public void onServerStarting(ServerStartingEvent event) {
         // Do something when the server starts
         LOGGER.info("HELLO from server starting");
+
+        // Start watching for lag spikes once the server thread exists
+        LagSpikeProfiler.start(event.getServer());
+    }
+
+    @SubscribeEvent
+    public void onServerStopping(ServerStoppingEvent event) {
+        LagSpikeProfiler.stop();
     }
 
     // You can use EventBusSubscriber to automatically register all static methods in the class annotated with @SubscribeEvent
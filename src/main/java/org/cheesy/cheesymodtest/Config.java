@@ -1,16 +1,15 @@
 package org.cheesy.cheesymodtest;
 
-import net.minecraft.resources.ResourceLocation;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.world.entity.EntityType;
 import net.minecraft.world.item.Item;
 import net.minecraftforge.common.ForgeConfigSpec;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.event.config.ModConfigEvent;
-import net.minecraftforge.registries.ForgeRegistries;
+import org.cheesy.cheesymodtest.filter.RegistryFilter;
 
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 // An example config class. This is not required, but it's a good idea to have one to keep your config organized.
 // Demonstrates how to use Forge's config APIs
@@ -24,18 +23,81 @@ public class Config {
 
     public static final ForgeConfigSpec.ConfigValue<String> MAGIC_NUMBER_INTRODUCTION = BUILDER.comment("What you want the introduction message to be for the magic number").define("magicNumberIntroduction", "The magic number is... ");
 
-    // a list of strings that are treated as resource locations for items
-    private static final ForgeConfigSpec.ConfigValue<List<? extends String>> ITEM_STRINGS = BUILDER.comment("A list of items to log on common setup.").defineListAllowEmpty("items", List.of("minecraft:iron_ingot"), Config::validateItemName);
+    // a list of strings that are treated as resource locations for items, or item tags when prefixed with '#'
+    private static final ForgeConfigSpec.ConfigValue<List<? extends String>> ITEM_STRINGS = BUILDER.comment("A list of items or item tags (#minecraft:logs) to log on common setup.").defineListAllowEmpty("items", List.of("minecraft:iron_ingot"), Config::validateItemName);
+
+    // Tick metrics
+    private static final ForgeConfigSpec.IntValue METRICS_PORT = BUILDER.comment("Port for the Prometheus tick metrics endpoint, bound to the loopback address only. 0 disables it").defineInRange("metrics.port", 0, 0, 65535);
+
+    // Lag spike profiler
+    private static final ForgeConfigSpec.BooleanValue PROFILER_ENABLED = BUILDER.comment("Whether to sample the server thread during lag spikes").define("profiler.enabled", true);
+
+    private static final ForgeConfigSpec.IntValue PROFILER_SAMPLE_INTERVAL_MS = BUILDER.comment("How often to sample the server thread while a tick is running long, in milliseconds").defineInRange("profiler.sampleIntervalMs", 10, 1, 1000);
+
+    private static final ForgeConfigSpec.IntValue PROFILER_SPIKE_THRESHOLD_MS = BUILDER.comment("Ticks taking longer than this many milliseconds have their samples written to cheesy-profiles/").defineInRange("profiler.spikeThresholdMs", 100, 1, 60000);
+
+    // Chunk pre-generation
+    private static final ForgeConfigSpec.IntValue PREGEN_MSPT_BUDGET = BUILDER.comment("Pre-generation backs off whenever a tick takes longer than this many milliseconds while players are online").defineInRange("pregen.msptBudget", 40, 1, 1000);
+
+    private static final ForgeConfigSpec.IntValue PREGEN_MAX_IN_FLIGHT = BUILDER.comment("The most chunks pre-generation will have generating at once").defineInRange("pregen.maxInFlight", 64, 1, 1024);
+
+    // Entity activation ranges
+    private static final ForgeConfigSpec.BooleanValue ACTIVATION_RANGE_ENABLED = BUILDER.comment("Whether mobs far away from every player only get a full tick every few ticks").define("activationRange.enabled", true);
+
+    private static final ForgeConfigSpec.IntValue ACTIVATION_RANGE_MONSTERS = BUILDER.comment("Horizontal distance in blocks from a player within which monsters tick normally. 0 always ticks them").defineInRange("activationRange.monsters", 32, 0, 512);
+
+    private static final ForgeConfigSpec.IntValue ACTIVATION_RANGE_ANIMALS = BUILDER.comment("Horizontal distance in blocks from a player within which animals and other passive mobs tick normally. 0 always ticks them").defineInRange("activationRange.animals", 32, 0, 512);
+
+    private static final ForgeConfigSpec.IntValue ACTIVATION_RANGE_VILLAGERS = BUILDER.comment("Horizontal distance in blocks from a player within which villagers and wandering traders tick normally. 0 always ticks them").defineInRange("activationRange.villagers", 32, 0, 512);
+
+    private static final ForgeConfigSpec.IntValue ACTIVATION_RANGE_INACTIVE_TICK_INTERVAL = BUILDER.comment("Mobs outside their activation range get a full tick once every this many ticks").defineInRange("activationRange.inactiveTickInterval", 20, 1, 1200);
+
+    private static final ForgeConfigSpec.ConfigValue<List<? extends String>> ACTIVATION_RANGE_EXEMPT_STRINGS = BUILDER.comment("Entity types or entity type tags (#minecraft:raiders) that always tick normally").defineListAllowEmpty("activationRange.exemptEntities", List.of("minecraft:ender_dragon", "minecraft:wither", "minecraft:warden"), Config::validateEntityTypeName);
+
+    // Item and XP orb merging
+    private static final ForgeConfigSpec.BooleanValue MERGE_ENABLED = BUILDER.comment("Whether nearby item entities and XP orbs get merged").define("merge.enabled", true);
+
+    private static final ForgeConfigSpec.DoubleValue MERGE_RADIUS = BUILDER.comment("Items and XP orbs within this many blocks of each other are merged").defineInRange("merge.radius", 1.5, 0.5, 8.0);
+
+    private static final ForgeConfigSpec.IntValue MERGE_INTERVAL_TICKS = BUILDER.comment("How often, in ticks, a level's items and XP orbs are hashed to look for merges").defineInRange("merge.intervalTicks", 40, 1, 1200);
+
+    private static final ForgeConfigSpec.IntValue MERGE_CHECKS_PER_TICK = BUILDER.comment("How many item and XP orb comparisons the merger may make per tick, unfinished work carries over to the next tick").defineInRange("merge.checksPerTick", 2048, 64, 1000000);
+
+    // Startup tracing
+    private static final ForgeConfigSpec.BooleanValue STARTUP_TRACE_ENABLED = BUILDER.comment("Whether to write a Chrome trace of the loading phases to cheesy-startup-trace.json. This config loads partway through startup, use -Dcheesymodtest.startupTrace=true to also trace mod construction and registries").define("startupTrace.enabled", false);
 
     static final ForgeConfigSpec SPEC = BUILDER.build();
 
     public static boolean logDirtBlock;
     public static int magicNumber;
     public static String magicNumberIntroduction;
-    public static Set<Item> items;
+    // Compiled once and refilled in place, so code can hold on to it and check membership from any thread
+    public static final RegistryFilter<Item> items = new RegistryFilter<>(BuiltInRegistries.ITEM);
+    public static int metricsPort;
+    public static boolean profilerEnabled;
+    public static int profilerSampleIntervalMs;
+    public static int profilerSpikeThresholdMs;
+    public static int pregenMsptBudget;
+    public static int pregenMaxInFlight;
+    public static boolean activationRangeEnabled;
+    public static int activationRangeMonsters;
+    public static int activationRangeAnimals;
+    public static int activationRangeVillagers;
+    public static int activationRangeMax;
+    public static int activationRangeInactiveTickInterval;
+    public static final RegistryFilter<EntityType<?>> activationRangeExempt = new RegistryFilter<>(BuiltInRegistries.ENTITY_TYPE);
+    public static boolean mergeEnabled;
+    public static double mergeRadius;
+    public static int mergeIntervalTicks;
+    public static int mergeChecksPerTick;
+    public static boolean startupTrace;
 
     private static boolean validateItemName(final Object obj) {
-        return obj instanceof final String itemName && ForgeRegistries.ITEMS.containsKey(ResourceLocation.parse(itemName));
+        return RegistryFilter.isValidEntry(BuiltInRegistries.ITEM, obj);
+    }
+
+    private static boolean validateEntityTypeName(final Object obj) {
+        return RegistryFilter.isValidEntry(BuiltInRegistries.ENTITY_TYPE, obj);
     }
 
     @SubscribeEvent
@@ -43,8 +105,26 @@ public class Config {
         logDirtBlock = LOG_DIRT_BLOCK.get();
         magicNumber = MAGIC_NUMBER.get();
         magicNumberIntroduction = MAGIC_NUMBER_INTRODUCTION.get();
+        metricsPort = METRICS_PORT.get();
+        profilerEnabled = PROFILER_ENABLED.get();
+        profilerSampleIntervalMs = PROFILER_SAMPLE_INTERVAL_MS.get();
+        profilerSpikeThresholdMs = PROFILER_SPIKE_THRESHOLD_MS.get();
+        pregenMsptBudget = PREGEN_MSPT_BUDGET.get();
+        pregenMaxInFlight = PREGEN_MAX_IN_FLIGHT.get();
+        activationRangeEnabled = ACTIVATION_RANGE_ENABLED.get();
+        activationRangeMonsters = ACTIVATION_RANGE_MONSTERS.get();
+        activationRangeAnimals = ACTIVATION_RANGE_ANIMALS.get();
+        activationRangeVillagers = ACTIVATION_RANGE_VILLAGERS.get();
+        activationRangeMax = Math.max(activationRangeMonsters, Math.max(activationRangeAnimals, activationRangeVillagers));
+        activationRangeInactiveTickInterval = ACTIVATION_RANGE_INACTIVE_TICK_INTERVAL.get();
+        activationRangeExempt.update(ACTIVATION_RANGE_EXEMPT_STRINGS.get());
+        mergeEnabled = MERGE_ENABLED.get();
+        mergeRadius = MERGE_RADIUS.get();
+        mergeIntervalTicks = MERGE_INTERVAL_TICKS.get();
+        mergeChecksPerTick = MERGE_CHECKS_PER_TICK.get();
+        startupTrace = STARTUP_TRACE_ENABLED.get();
 
-        // convert the list of strings into a set of items
-        items = ITEM_STRINGS.get().stream().map(itemName -> ForgeRegistries.ITEMS.getValue(ResourceLocation.parse(itemName))).collect(Collectors.toSet());
+        // compile the list of strings into a bitset of item ids, tags are expanded again whenever they reload
+        items.update(ITEM_STRINGS.get());
     }
 }
@@ -0,0 +1,125 @@
+package org.cheesy.cheesymodtest.activation;
+
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.entity.Mob;
+import net.minecraft.world.entity.npc.AbstractVillager;
+import net.minecraft.world.entity.monster.Enemy;
+import net.minecraftforge.event.entity.living.LivingEvent;
+import net.minecraftforge.event.level.LevelEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.EventPriority;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import org.cheesy.cheesymodtest.Cheesymodtest;
+import org.cheesy.cheesymodtest.Config;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+// Entity activation ranges: mobs that are not within range of any player only get a full tick every Nth tick.
+// The skip happens by cancelling LivingTickEvent, which Forge fires at the very start of LivingEntity.tick(),
+// so movement, AI, the brain and goal selectors are all skipped together. Despawn checks run outside of tick()
+// and keep working. Entities that are burning, hurt, riding, in water, targeting something or leashed always tick.
+@Mod.EventBusSubscriber(modid = Cheesymodtest.MOD_ID)
+public class ActivationRange {
+    private static final Map<ServerLevel, PlayerIndex> INDEXES = new IdentityHashMap<>();
+
+    // Full and skipped ticks, indexed by entity type registry id
+    private static long[] fullTicks = new long[0];
+    private static long[] skippedTicks = new long[0];
+
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public static void onLivingTick(LivingEvent.LivingTickEvent event) {
+        if (!Config.activationRangeEnabled || !(event.getEntity() instanceof Mob mob) || !(mob.level() instanceof ServerLevel level)) {
+            return;
+        }
+        int range = range(mob);
+        if (range <= 0 || Config.activationRangeExempt.contains(mob.getType())) {
+            return;
+        }
+
+        PlayerIndex index = INDEXES.computeIfAbsent(level, key -> new PlayerIndex());
+        long gameTime = level.getGameTime();
+        if (index.builtAt != gameTime) {
+            index.rebuild(level.players(), Config.activationRangeMax, gameTime);
+        }
+
+        int typeId = BuiltInRegistries.ENTITY_TYPE.getId(mob.getType());
+        if (index.anyWithin(mob.getX(), mob.getZ(), range) || isImmune(mob)
+                || (mob.tickCount + mob.getId()) % Config.activationRangeInactiveTickInterval == 0) {
+            count(typeId, false);
+            return;
+        }
+        count(typeId, true);
+        event.setCanceled(true);
+    }
+
+    private static int range(Mob mob) {
+        if (mob instanceof AbstractVillager) {
+            return Config.activationRangeVillagers;
+        }
+        if (mob instanceof Enemy) {
+            return Config.activationRangeMonsters;
+        }
+        return Config.activationRangeAnimals;
+    }
+
+    private static boolean isImmune(Mob mob) {
+        return mob.tickCount < 20
+                || mob.isOnFire()
+                || mob.hurtTime > 0
+                || mob.invulnerableTime > 0
+                || mob.isPassenger()
+                || mob.isVehicle()
+                || mob.isInWater()
+                || mob.isLeashed()
+                || mob.getTarget() != null;
+    }
+
+    private static void count(int typeId, boolean skipped) {
+        if (typeId < 0) {
+            return;
+        }
+        if (typeId >= fullTicks.length) {
+            int size = Math.max(typeId + 1, BuiltInRegistries.ENTITY_TYPE.size());
+            fullTicks = Arrays.copyOf(fullTicks, size);
+            skippedTicks = Arrays.copyOf(skippedTicks, size);
+        }
+        if (skipped) {
+            skippedTicks[typeId]++;
+        } else {
+            fullTicks[typeId]++;
+        }
+    }
+
+    public static long fullTicks(EntityType<?> type) {
+        int id = BuiltInRegistries.ENTITY_TYPE.getId(type);
+        return id >= 0 && id < fullTicks.length ? fullTicks[id] : 0;
+    }
+
+    public static long skippedTicks(EntityType<?> type) {
+        int id = BuiltInRegistries.ENTITY_TYPE.getId(type);
+        return id >= 0 && id < skippedTicks.length ? skippedTicks[id] : 0;
+    }
+
+    public static void resetCounters() {
+        Arrays.fill(fullTicks, 0L);
+        Arrays.fill(skippedTicks, 0L);
+    }
+
+    @SubscribeEvent
+    public static void onLevelUnload(LevelEvent.Unload event) {
+        if (event.getLevel() instanceof ServerLevel level) {
+            INDEXES.remove(level);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        INDEXES.clear();
+        resetCounters();
+    }
+}
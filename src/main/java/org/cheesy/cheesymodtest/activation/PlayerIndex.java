@@ -0,0 +1,82 @@
+package org.cheesy.cheesymodtest.activation;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.util.Mth;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// A uniform grid of the (non-spectator) player positions in one level, rebuilt once per tick.
+// The cell size is at least the largest range we query, so any lookup only has to look at the 3x3 cells around it.
+// Cell lists are pooled, so after warming up a rebuild doesn't allocate.
+class PlayerIndex {
+    private final Long2ObjectOpenHashMap<IntArrayList> cells = new Long2ObjectOpenHashMap<>();
+    private final List<IntArrayList> pool = new ArrayList<>();
+    private double[] xs = new double[16];
+    private double[] zs = new double[16];
+    private int cellSize = 16;
+    long builtAt = Long.MIN_VALUE;
+
+    void rebuild(List<ServerPlayer> players, int cellSize, long gameTime) {
+        for (IntArrayList list : cells.values()) {
+            list.clear();
+            pool.add(list);
+        }
+        cells.clear();
+        this.cellSize = Math.max(16, cellSize);
+        this.builtAt = gameTime;
+        if (xs.length < players.size()) {
+            xs = new double[players.size() * 2];
+            zs = new double[players.size() * 2];
+        }
+
+        for (int i = 0; i < players.size(); i++) {
+            ServerPlayer player = players.get(i);
+            if (player.isSpectator()) {
+                continue;
+            }
+            xs[i] = player.getX();
+            zs[i] = player.getZ();
+            long key = key(Mth.floor(xs[i] / this.cellSize), Mth.floor(zs[i] / this.cellSize));
+            IntArrayList list = cells.get(key);
+            if (list == null) {
+                list = pool.isEmpty() ? new IntArrayList(4) : pool.remove(pool.size() - 1);
+                cells.put(key, list);
+            }
+            list.add(i);
+        }
+    }
+
+    // Whether any player is within range blocks of (x, z), measured horizontally
+    boolean anyWithin(double x, double z, double range) {
+        if (cells.isEmpty()) {
+            return false;
+        }
+        double rangeSq = range * range;
+        int cellX = Mth.floor(x / cellSize);
+        int cellZ = Mth.floor(z / cellSize);
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dz = -1; dz <= 1; dz++) {
+                IntArrayList list = cells.get(key(cellX + dx, cellZ + dz));
+                if (list == null) {
+                    continue;
+                }
+                for (int i = 0; i < list.size(); i++) {
+                    int player = list.getInt(i);
+                    double ox = xs[player] - x;
+                    double oz = zs[player] - z;
+                    if (ox * ox + oz * oz <= rangeSq) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static long key(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+}
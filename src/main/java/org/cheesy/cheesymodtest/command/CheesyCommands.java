@@ -0,0 +1,25 @@
+package org.cheesy.cheesymodtest.command;
+
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraftforge.event.RegisterCommandsEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import org.cheesy.cheesymodtest.Cheesymodtest;
+
+// Registers the /cheesy command tree. Each feature adds its own sub command here.
+@Mod.EventBusSubscriber(modid = Cheesymodtest.MOD_ID)
+public class CheesyCommands {
+
+    @SubscribeEvent
+    public static void onRegisterCommands(RegisterCommandsEvent event) {
+        LiteralArgumentBuilder<CommandSourceStack> root = Commands.literal("cheesy")
+                .requires(source -> source.hasPermission(Commands.LEVEL_GAMEMASTERS))
+                .then(PerfCommand.register())
+                .then(PregenCommand.register())
+                .then(RegionsCommand.register());
+
+        event.getDispatcher().register(root);
+    }
+}
@@ -0,0 +1,83 @@
+package org.cheesy.cheesymodtest.command;
+
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.network.chat.Component;
+import net.minecraft.world.entity.EntityType;
+import org.cheesy.cheesymodtest.activation.ActivationRange;
+import org.cheesy.cheesymodtest.perf.DimensionMetrics;
+import org.cheesy.cheesymodtest.perf.LongHistogram;
+import org.cheesy.cheesymodtest.perf.TickMetrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+// /cheesy perf - prints the tick metrics gathered by TickMetrics
+public class PerfCommand {
+    // Five seconds worth of ticks for the "recent" columns
+    private static final int RECENT_WINDOW = 100;
+    private static final int ACTIVATION_TOP_TYPES = 10;
+
+    static LiteralArgumentBuilder<CommandSourceStack> register() {
+        return Commands.literal("perf")
+                .executes(context -> report(context.getSource()))
+                .then(Commands.literal("activation").executes(context -> activation(context.getSource())))
+                .then(Commands.literal("reset").executes(context -> {
+                    TickMetrics.reset();
+                    ActivationRange.resetCounters();
+                    context.getSource().sendSuccess(() -> Component.literal("Tick metrics reset"), true);
+                    return 1;
+                }));
+    }
+
+    private static int report(CommandSourceStack source) {
+        LongHistogram server = TickMetrics.serverTickNanos();
+        double recentMspt = server.recentMean(RECENT_WINDOW) / 1.0e6;
+        double tps = recentMspt <= 50.0 ? 20.0 : 1000.0 / recentMspt;
+        source.sendSuccess(() -> Component.literal(String.format(Locale.ROOT,
+                "Server: %.1f TPS, %s (last %ds max %.2f ms)",
+                tps, describe(server), RECENT_WINDOW / 20, server.recentMax(RECENT_WINDOW) / 1.0e6)), false);
+
+        for (DimensionMetrics metrics : TickMetrics.dimensions()) {
+            source.sendSuccess(() -> Component.literal(String.format(Locale.ROOT,
+                    "  %s: %s, %d entities, %d chunks",
+                    metrics.dimension.location(), describe(metrics.tickNanos), metrics.entityCount(), metrics.loadedChunks.latest())), false);
+        }
+        return 1;
+    }
+
+    // Entity types with the most ticks skipped by activation ranges
+    private static int activation(CommandSourceStack source) {
+        List<EntityType<?>> types = new ArrayList<>();
+        for (EntityType<?> type : BuiltInRegistries.ENTITY_TYPE) {
+            if (ActivationRange.fullTicks(type) + ActivationRange.skippedTicks(type) > 0) {
+                types.add(type);
+            }
+        }
+        if (types.isEmpty()) {
+            source.sendSuccess(() -> Component.literal("No entity ticks recorded by activation ranges yet"), false);
+            return 0;
+        }
+        types.sort(Comparator.<EntityType<?>>comparingLong(ActivationRange::skippedTicks).reversed());
+        for (EntityType<?> type : types.subList(0, Math.min(ACTIVATION_TOP_TYPES, types.size()))) {
+            long full = ActivationRange.fullTicks(type);
+            long skipped = ActivationRange.skippedTicks(type);
+            source.sendSuccess(() -> Component.literal(String.format(Locale.ROOT, "  %s: %d skipped, %d full (%.1f%% skipped)",
+                    BuiltInRegistries.ENTITY_TYPE.getKey(type), skipped, full, skipped * 100.0 / (skipped + full))), false);
+        }
+        return types.size();
+    }
+
+    private static String describe(LongHistogram histogram) {
+        return String.format(Locale.ROOT, "mean %.2f ms, p50 %.2f ms, p99 %.2f ms, max %.2f ms over %d ticks",
+                histogram.mean() / 1.0e6,
+                histogram.valueAtPercentile(50) / 1.0e6,
+                histogram.valueAtPercentile(99) / 1.0e6,
+                histogram.max() / 1.0e6,
+                histogram.count());
+    }
+}
@@ -0,0 +1,63 @@
+package org.cheesy.cheesymodtest.command;
+
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.commands.arguments.DimensionArgument;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.level.ServerLevel;
+import org.cheesy.cheesymodtest.pregen.PregenScheduler;
+import org.cheesy.cheesymodtest.pregen.PregenTask;
+
+// /cheesy pregen <dimension> <radius> - pre-generates a square of chunks around the world spawn, radius in blocks
+public class PregenCommand {
+
+    static LiteralArgumentBuilder<CommandSourceStack> register() {
+        return Commands.literal("pregen")
+                .executes(context -> status(context.getSource()))
+                .then(Commands.literal("cancel")
+                        .then(Commands.argument("dimension", DimensionArgument.dimension())
+                                .executes(PregenCommand::cancel)))
+                .then(Commands.argument("dimension", DimensionArgument.dimension())
+                        .then(Commands.argument("radius", IntegerArgumentType.integer(1, 30_000_000))
+                                .executes(PregenCommand::start)));
+    }
+
+    private static int start(CommandContext<CommandSourceStack> context) throws CommandSyntaxException {
+        ServerLevel level = DimensionArgument.getDimension(context, "dimension");
+        int radiusBlocks = IntegerArgumentType.getInteger(context, "radius");
+        BlockPos spawn = level.getSharedSpawnPos();
+        int radiusChunks = SectionPos.blockToSectionCoord(radiusBlocks + 15);
+
+        PregenScheduler.start(level, SectionPos.blockToSectionCoord(spawn.getX()), SectionPos.blockToSectionCoord(spawn.getZ()), radiusChunks);
+        long total = (2L * radiusChunks + 1) * (2L * radiusChunks + 1);
+        context.getSource().sendSuccess(() -> Component.literal("Pre-generating " + total + " chunks in " + level.dimension().location() + " around " + spawn.toShortString()), true);
+        return 1;
+    }
+
+    private static int cancel(CommandContext<CommandSourceStack> context) throws CommandSyntaxException {
+        ServerLevel level = DimensionArgument.getDimension(context, "dimension");
+        if (!PregenScheduler.cancel(level)) {
+            context.getSource().sendFailure(Component.literal("No pre-generation running in " + level.dimension().location()));
+            return 0;
+        }
+        context.getSource().sendSuccess(() -> Component.literal("Cancelled pre-generation in " + level.dimension().location()), true);
+        return 1;
+    }
+
+    private static int status(CommandSourceStack source) {
+        if (PregenScheduler.tasks().isEmpty()) {
+            source.sendSuccess(() -> Component.literal("No pre-generation running"), false);
+            return 0;
+        }
+        for (PregenTask task : PregenScheduler.tasks()) {
+            source.sendSuccess(() -> Component.literal(task.describe()), false);
+        }
+        return PregenScheduler.tasks().size();
+    }
+}
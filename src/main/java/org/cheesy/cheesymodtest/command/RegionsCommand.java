@@ -0,0 +1,61 @@
+package org.cheesy.cheesymodtest.command;
+
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.commands.arguments.DimensionArgument;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.dimension.DimensionType;
+import net.minecraft.world.level.storage.LevelResource;
+import org.cheesy.cheesymodtest.Cheesymodtest;
+import org.cheesy.cheesymodtest.region.RegionTool;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+// /cheesy regions <dimension> - analyzes a dimension's region files off the server thread.
+// Compacting is only offered through RegionTool, since the files can't be rewritten while the world is loaded.
+public class RegionsCommand {
+
+    static LiteralArgumentBuilder<CommandSourceStack> register() {
+        return Commands.literal("regions")
+                .then(Commands.argument("dimension", DimensionArgument.dimension())
+                        .executes(RegionsCommand::analyze));
+    }
+
+    private static int analyze(CommandContext<CommandSourceStack> context) throws CommandSyntaxException {
+        CommandSourceStack source = context.getSource();
+        ServerLevel level = DimensionArgument.getDimension(context, "dimension");
+        MinecraftServer server = source.getServer();
+        Path regionDir = DimensionType.getStorageFolder(level.dimension(), server.getWorldPath(LevelResource.ROOT)).resolve("region");
+
+        source.sendSuccess(() -> Component.literal("Analyzing region files in " + regionDir + "..."), false);
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                return RegionTool.analyze(RegionTool.regionFiles(regionDir), ForkJoinPool.commonPool());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).whenComplete((stats, error) -> server.execute(() -> {
+            if (error != null) {
+                Cheesymodtest.LOGGER.error("Failed to analyze region files in {}", regionDir, error);
+                source.sendFailure(Component.literal("Failed to analyze region files: " + error.getMessage()));
+                return;
+            }
+            List<String> lines = stats.describe();
+            lines.forEach(line -> source.sendSuccess(() -> Component.literal(line), false));
+            if (stats.wastedBytes() > 0) {
+                source.sendSuccess(() -> Component.literal("Stop the server and run 'java -jar <mod jar> compact <region folder> <output folder>' to reclaim free sectors"), false);
+            }
+        }));
+        return 1;
+    }
+}
@@ -0,0 +1,117 @@
+package org.cheesy.cheesymodtest.filter;
+
+import net.minecraft.core.Holder;
+import net.minecraft.core.Registry;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.tags.TagKey;
+import net.minecraftforge.event.TagsUpdatedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.registries.IdMappingEvent;
+import org.cheesy.cheesymodtest.Cheesymodtest;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// A set of registry entries compiled down to a bitset indexed by registry id.
+// Entries are either ids ("minecraft:iron_ingot") or tags ("#minecraft:logs"). Compiling builds a fresh long[] and
+// publishes it with a single volatile write, so contains() is an allocation-free O(1) check that is safe from any thread.
+// Works for any registry, e.g. BuiltInRegistries.ITEM, BLOCK or ENTITY_TYPE.
+@Mod.EventBusSubscriber(modid = Cheesymodtest.MOD_ID)
+public class RegistryFilter<T> {
+    // Every filter, so tag reloads and id remaps can recompile them all
+    private static final List<RegistryFilter<?>> FILTERS = new CopyOnWriteArrayList<>();
+
+    private final Registry<T> registry;
+    private volatile List<String> entries = List.of();
+    private volatile long[] bits = new long[0];
+
+    public RegistryFilter(Registry<T> registry) {
+        this.registry = registry;
+        FILTERS.add(this);
+    }
+
+    // Returns true if obj is a valid filter entry: a resource location, optionally prefixed with '#' for a tag.
+    // Plain ids also have to exist in the registry; tags are not checked since they may not be loaded yet.
+    public static boolean isValidEntry(Registry<?> registry, Object obj) {
+        if (!(obj instanceof final String entry)) {
+            return false;
+        }
+        if (entry.startsWith("#")) {
+            return ResourceLocation.tryParse(entry.substring(1)) != null;
+        }
+        ResourceLocation id = ResourceLocation.tryParse(entry);
+        return id != null && registry.containsKey(id);
+    }
+
+    public boolean contains(T value) {
+        return containsId(registry.getId(value));
+    }
+
+    public boolean contains(Holder<T> holder) {
+        return contains(holder.value());
+    }
+
+    public boolean containsId(int id) {
+        long[] current = bits;
+        int word = id >>> 6;
+        return id >= 0 && word < current.length && (current[word] & (1L << id)) != 0;
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    public List<String> entries() {
+        return entries;
+    }
+
+    // Replaces the entries and recompiles
+    public synchronized void update(List<? extends String> newEntries) {
+        entries = List.copyOf(newEntries);
+        compile();
+    }
+
+    // Rebuilds the bitset from the current entries, e.g. after tags have been reloaded
+    public synchronized void recompile() {
+        compile();
+    }
+
+    private void compile() {
+        long[] compiled = new long[(registry.size() + 63) >>> 6];
+        for (String entry : entries) {
+            if (entry.startsWith("#")) {
+                ResourceLocation tagId = ResourceLocation.tryParse(entry.substring(1));
+                if (tagId == null) {
+                    continue;
+                }
+                for (Holder<T> holder : registry.getTagOrEmpty(TagKey.create(registry.key(), tagId))) {
+                    set(compiled, registry.getId(holder.value()));
+                }
+            } else {
+                ResourceLocation id = ResourceLocation.tryParse(entry);
+                if (id != null) {
+                    registry.getOptional(id).ifPresent(value -> set(compiled, registry.getId(value)));
+                }
+            }
+        }
+        bits = compiled;
+    }
+
+    private static void set(long[] compiled, int id) {
+        if (id >= 0 && (id >>> 6) < compiled.length) {
+            compiled[id >>> 6] |= 1L << id;
+        }
+    }
+
+    @SubscribeEvent
+    public static void onTagsUpdated(TagsUpdatedEvent event) {
+        FILTERS.forEach(RegistryFilter::recompile);
+    }
+
+    // Forge can remap numeric ids when joining a server, which invalidates every compiled bitset
+    @SubscribeEvent
+    public static void onIdMapping(IdMappingEvent event) {
+        FILTERS.forEach(RegistryFilter::recompile);
+    }
+}
@@ -0,0 +1,127 @@
+package org.cheesy.cheesymodtest.gametest;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.entity.item.ItemEntity;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.HopperBlock;
+import net.minecraft.world.level.block.ObserverBlock;
+import net.minecraft.world.level.block.entity.ChestBlockEntity;
+import net.minecraft.world.phys.Vec3;
+import net.minecraftforge.eventbus.api.IEventBus;
+import net.minecraftforge.registries.DeferredRegister;
+import org.cheesy.cheesymodtest.Cheesymodtest;
+
+import java.util.function.Consumer;
+
+// Performance regression GameTests. Each scenario builds itself on the 16x16 stone platform in
+// data/cheesymodtest/structure/perf_platform.nbt, idles through a warmup, then measures server tick time.
+// The test instances (data/cheesymodtest/test_instance) each use their own environment so they run in separate batches.
+public class PerfGameTests {
+    private static final DeferredRegister<Consumer<GameTestHelper>> TEST_FUNCTIONS = DeferredRegister.create(Registries.TEST_FUNCTION, Cheesymodtest.MOD_ID);
+
+    // Measured with a player standing at the pen, so every cow is inside its activation range and runs its full AI each tick
+    public static final PerfScenario MOB_FARM = new PerfScenario("mob_farm", 20, 200, 20.0, 40.0);
+    public static final PerfScenario HOPPER_CHAIN = new PerfScenario("hopper_chain", 20, 200, 10.0, 25.0);
+    public static final PerfScenario REDSTONE_CLOCKS = new PerfScenario("redstone_clocks", 20, 200, 10.0, 25.0);
+    // Includes the item merger with whatever merge.* settings the test server runs with, enabled by default
+    public static final PerfScenario MASS_ITEM_DROP = new PerfScenario("mass_item_drop", 20, 200, 20.0, 45.0);
+
+    private static final int MOB_FARM_MOBS = 120;
+    private static final int DROPPED_ITEMS = 2000;
+    private static final Item[] DROP_TYPES = {Items.COBBLESTONE, Items.DIRT, Items.GRAVEL, Items.SAND};
+
+    static {
+        register(MOB_FARM, PerfGameTests::buildMobFarm);
+        register(HOPPER_CHAIN, PerfGameTests::buildHopperChains);
+        register(REDSTONE_CLOCKS, PerfGameTests::buildRedstoneClocks);
+        register(MASS_ITEM_DROP, PerfGameTests::dropItems);
+    }
+
+    public static void register(IEventBus modEventBus) {
+        TEST_FUNCTIONS.register(modEventBus);
+    }
+
+    private static void register(PerfScenario scenario, Consumer<GameTestHelper> setup) {
+        TEST_FUNCTIONS.register(scenario.name(), () -> helper -> run(helper, scenario, setup));
+    }
+
+    private static void run(GameTestHelper helper, PerfScenario scenario, Consumer<GameTestHelper> setup) {
+        setup.accept(helper);
+        TickRecorder recorder = new TickRecorder(scenario);
+        helper.startSequence()
+                .thenIdle(scenario.warmupTicks())
+                .thenExecuteFor(scenario.measuredTicks(), recorder::sample)
+                .thenExecute(() -> recorder.verify(helper))
+                .thenSucceed();
+    }
+
+    // A walled pen packed with cows, watched by a mock player. The test server has no real players, and without one
+    // in range the activation ranges would leave the cows a full tick only every few ticks once the warmup is over.
+    private static void buildMobFarm(GameTestHelper helper) {
+        for (int i = 0; i < 16; i++) {
+            for (int y = 1; y <= 2; y++) {
+                helper.setBlock(new BlockPos(i, y, 0), Blocks.GLASS);
+                helper.setBlock(new BlockPos(i, y, 15), Blocks.GLASS);
+                helper.setBlock(new BlockPos(0, y, i), Blocks.GLASS);
+                helper.setBlock(new BlockPos(15, y, i), Blocks.GLASS);
+            }
+        }
+        for (int i = 0; i < MOB_FARM_MOBS; i++) {
+            helper.spawn(EntityType.COW, new BlockPos(1 + i % 14, 1, 1 + (i / 14) % 14));
+        }
+
+        ServerPlayer player = helper.makeMockServerPlayerInLevel();
+        Vec3 watchPos = helper.absoluteVec(new Vec3(8.0, 4.0, 8.0));
+        player.setPos(watchPos.x, watchPos.y, watchPos.z);
+        // Players aren't cleaned up with the test, so leave before the next batch can see this one
+        helper.runAfterDelay(MOB_FARM.warmupTicks() + MOB_FARM.measuredTicks(), () -> helper.getLevel().getServer().getPlayerList().remove(player));
+    }
+
+    // Four chains of twelve hoppers moving a full chest of cobblestone into another chest
+    private static void buildHopperChains(GameTestHelper helper) {
+        for (int z = 2; z <= 11; z += 3) {
+            for (int x = 2; x <= 13; x++) {
+                helper.setBlock(new BlockPos(x, 1, z), Blocks.HOPPER.defaultBlockState().setValue(HopperBlock.FACING, Direction.EAST));
+            }
+            helper.setBlock(new BlockPos(14, 1, z), Blocks.CHEST);
+            BlockPos source = new BlockPos(2, 2, z);
+            helper.setBlock(source, Blocks.CHEST);
+            if (helper.getLevel().getBlockEntity(helper.absolutePos(source)) instanceof ChestBlockEntity chest) {
+                for (int slot = 0; slot < chest.getContainerSize(); slot++) {
+                    chest.setItem(slot, new ItemStack(Items.COBBLESTONE, 64));
+                }
+            }
+        }
+    }
+
+    // Rows of observer pairs facing each other, each pulsing a lamp on both ends every other tick
+    private static void buildRedstoneClocks(GameTestHelper helper) {
+        for (int z = 1; z <= 14; z += 2) {
+            for (int x = 1; x <= 11; x += 5) {
+                helper.setBlock(new BlockPos(x, 1, z), Blocks.REDSTONE_LAMP);
+                helper.setBlock(new BlockPos(x + 3, 1, z), Blocks.REDSTONE_LAMP);
+                helper.setBlock(new BlockPos(x + 1, 1, z), Blocks.OBSERVER.defaultBlockState().setValue(ObserverBlock.FACING, Direction.EAST));
+                // Placing the second observer is seen by the first one, which starts the clock
+                helper.setBlock(new BlockPos(x + 2, 1, z), Blocks.OBSERVER.defaultBlockState().setValue(ObserverBlock.FACING, Direction.WEST));
+            }
+        }
+    }
+
+    // Lots of single items scattered over the platform, like an exploded chest farm
+    private static void dropItems(GameTestHelper helper) {
+        for (int i = 0; i < DROPPED_ITEMS; i++) {
+            Vec3 pos = helper.absoluteVec(new Vec3(1.5 + (i % 13), 2.0, 1.5 + (i / 13) % 13));
+            ItemEntity item = new ItemEntity(helper.getLevel(), pos.x, pos.y, pos.z, new ItemStack(DROP_TYPES[i % DROP_TYPES.length]));
+            item.setNoPickUpDelay();
+            helper.getLevel().addFreshEntity(item);
+        }
+    }
+}
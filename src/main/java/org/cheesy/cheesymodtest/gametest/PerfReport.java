@@ -0,0 +1,67 @@
+package org.cheesy.cheesymodtest.gametest;
+
+import net.minecraft.gametest.framework.GlobalTestReporter;
+import net.minecraft.gametest.framework.JUnitLikeTestReporter;
+import net.minecraftforge.event.server.ServerAboutToStartEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.loading.FMLPaths;
+import org.cheesy.cheesymodtest.Cheesymodtest;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Writes the results of the performance GameTests.
+// -Dcheesymodtest.gametestReport=<file> installs a JUnit style XML reporter for every GameTest that runs,
+// and the measured numbers of each scenario go to a JSON baseline file (-Dcheesymodtest.gametestBaseline=<file>).
+@Mod.EventBusSubscriber(modid = Cheesymodtest.MOD_ID)
+public class PerfReport {
+    private static final String REPORT_PROPERTY = Cheesymodtest.MOD_ID + ".gametestReport";
+    private static final String BASELINE_PROPERTY = Cheesymodtest.MOD_ID + ".gametestBaseline";
+
+    private record Result(double avgMs, double p99Ms, double avgBudgetMs, double p99BudgetMs, int ticks, boolean passed) {
+    }
+
+    private static final Map<String, Result> RESULTS = new TreeMap<>();
+
+    // The GameTest server only fires the about-to-start event, never ServerStartingEvent
+    @SubscribeEvent
+    public static void onServerAboutToStart(ServerAboutToStartEvent event) {
+        String report = System.getProperty(REPORT_PROPERTY);
+        if (report == null || report.isEmpty()) {
+            return;
+        }
+        try {
+            GlobalTestReporter.replaceWith(new JUnitLikeTestReporter(FMLPaths.GAMEDIR.get().resolve(report).toFile()));
+        } catch (ParserConfigurationException e) {
+            Cheesymodtest.LOGGER.error("Failed to set up the GameTest report {}", report, e);
+        }
+    }
+
+    // Results come in on the server thread as each scenario finishes, the whole file is rewritten every time
+    static synchronized void record(PerfScenario scenario, double avgMs, double p99Ms, int ticks, boolean passed) {
+        RESULTS.put(scenario.name(), new Result(avgMs, p99Ms, scenario.avgBudgetMs(), scenario.p99BudgetMs(), ticks, passed));
+        Path file = FMLPaths.GAMEDIR.get().resolve(System.getProperty(BASELINE_PROPERTY, "gametest-perf-baseline.json"));
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("{\n");
+            int i = 0;
+            for (Map.Entry<String, Result> entry : RESULTS.entrySet()) {
+                Result result = entry.getValue();
+                writer.write(String.format(Locale.ROOT,
+                        "  \"%s\": {\"avgMs\": %.3f, \"p99Ms\": %.3f, \"avgBudgetMs\": %.3f, \"p99BudgetMs\": %.3f, \"ticks\": %d, \"passed\": %b}%s\n",
+                        entry.getKey(), result.avgMs(), result.p99Ms(), result.avgBudgetMs(), result.p99BudgetMs(), result.ticks(), result.passed(),
+                        ++i < RESULTS.size() ? "," : ""));
+            }
+            writer.write("}\n");
+        } catch (IOException e) {
+            Cheesymodtest.LOGGER.error("Failed to write the GameTest performance baseline {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package org.cheesy.cheesymodtest.gametest;
+
+// A performance scenario and the tick budget it has to stay within. The test instance's max_ticks
+// in data/cheesymodtest/test_instance has to be larger than warmupTicks + measuredTicks.
+public record PerfScenario(String name, int warmupTicks, int measuredTicks, double avgBudgetMs, double p99BudgetMs) {
+}
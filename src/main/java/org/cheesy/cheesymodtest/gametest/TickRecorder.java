@@ -0,0 +1,43 @@
+package org.cheesy.cheesymodtest.gametest;
+
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.network.chat.Component;
+import org.cheesy.cheesymodtest.perf.TickMetrics;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+// Collects the full server tick time for every tick of a scenario's measuring window, then checks it against the budget.
+// Tests run one batch at a time and every scenario has its own environment (and so its own batch),
+// so the server tick is a fair measure of the scenario alone.
+class TickRecorder {
+    private final PerfScenario scenario;
+    private final long[] samples;
+    private int count;
+
+    TickRecorder(PerfScenario scenario) {
+        this.scenario = scenario;
+        this.samples = new long[scenario.measuredTicks()];
+    }
+
+    // Called once per tick, records the last completed server tick
+    void sample() {
+        if (count < samples.length) {
+            samples[count++] = TickMetrics.serverTickNanos().latest();
+        }
+    }
+
+    void verify(GameTestHelper helper) {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        double avgMs = count == 0 ? 0.0 : Arrays.stream(sorted).average().orElse(0.0) / 1.0e6;
+        double p99Ms = count == 0 ? 0.0 : sorted[Math.min(count - 1, (int) Math.ceil(count * 0.99) - 1)] / 1.0e6;
+        boolean passed = avgMs <= scenario.avgBudgetMs() && p99Ms <= scenario.p99BudgetMs();
+        PerfReport.record(scenario, avgMs, p99Ms, count, passed);
+
+        if (!passed) {
+            helper.fail(Component.literal(String.format(Locale.ROOT, "%s over budget: avg %.2f ms (budget %.2f), p99 %.2f ms (budget %.2f) over %d ticks",
+                    scenario.name(), avgMs, scenario.avgBudgetMs(), p99Ms, scenario.p99BudgetMs(), count)));
+        }
+    }
+}
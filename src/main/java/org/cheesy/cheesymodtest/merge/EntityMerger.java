@@ -0,0 +1,243 @@
+package org.cheesy.cheesymodtest.merge;
+
+import net.minecraft.core.SectionPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.ExperienceOrb;
+import net.minecraft.world.entity.item.ItemEntity;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.phys.Vec3;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.entity.EntityJoinLevelEvent;
+import net.minecraftforge.event.entity.EntityLeaveLevelEvent;
+import net.minecraftforge.event.level.LevelEvent;
+import net.minecraftforge.eventbus.api.EventPriority;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import org.cheesy.cheesymodtest.Cheesymodtest;
+import org.cheesy.cheesymodtest.Config;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// Merges item entities and XP orbs that are close together, to cut down on the number of entities ticking.
+// Joining items and orbs are tracked per level. Every few seconds they are hashed into cells by section, then each entity
+// is checked against the same item (or any orb) in its own and the neighbouring cells. The work is capped by merge.checksPerTick
+// and resumes from a cursor on the next tick, so even a huge drop in a single section is spread over many ticks.
+@Mod.EventBusSubscriber(modid = Cheesymodtest.MOD_ID)
+public class EntityMerger {
+    private static final Map<ServerLevel, MergeState> STATES = new IdentityHashMap<>();
+
+    private static MergeState state(ServerLevel level) {
+        return STATES.computeIfAbsent(level, key -> new MergeState());
+    }
+
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public static void onEntityJoin(EntityJoinLevelEvent event) {
+        if (event.getLevel() instanceof ServerLevel level && (event.getEntity() instanceof ItemEntity || event.getEntity() instanceof ExperienceOrb)) {
+            state(level).tracked.add(event.getEntity());
+        }
+    }
+
+    @SubscribeEvent
+    public static void onEntityLeave(EntityLeaveLevelEvent event) {
+        if (event.getLevel() instanceof ServerLevel level && (event.getEntity() instanceof ItemEntity || event.getEntity() instanceof ExperienceOrb)) {
+            MergeState state = STATES.get(level);
+            if (state != null) {
+                state.tracked.remove(event.getEntity());
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public static void onLevelTickPost(TickEvent.LevelTickEvent.Post event) {
+        if (!Config.mergeEnabled || !(event.level instanceof ServerLevel level)) {
+            return;
+        }
+        MergeState state = STATES.get(level);
+        if (state == null) {
+            return;
+        }
+        if (!state.hasPending()) {
+            if (++state.ticksSinceRebuild >= Config.mergeIntervalTicks && state.tracked.size() > 1) {
+                state.rebuild();
+            }
+            return;
+        }
+
+        double radiusSq = Config.mergeRadius * Config.mergeRadius;
+        int budget = Config.mergeChecksPerTick;
+        while (budget > 0 && state.hasPending()) {
+            long key = state.order.getLong(state.cellCursor);
+            MergeState.Cell cell = state.cells.get(key);
+            int index = state.entityCursor;
+            if (index >= cell.size()) {
+                state.cellCursor++;
+                state.entityCursor = 0;
+                continue;
+            }
+            // An entity that runs out of budget is retried at the start of the next tick, unless it already had a whole tick to itself
+            boolean wholeTick = budget == Config.mergeChecksPerTick;
+            int used = index < cell.items.size()
+                    ? mergeItem(state, key, cell.items.get(index), cell.itemIds.getInt(index), radiusSq, budget - 1, wholeTick)
+                    : mergeOrb(level, state, key, cell.orbs.get(index - cell.items.size()), radiusSq, budget - 1, wholeTick);
+            if (used < 0) {
+                break;
+            }
+            state.entityCursor++;
+            budget -= used + 1;
+        }
+    }
+
+    @SubscribeEvent
+    public static void onLevelUnload(LevelEvent.Unload event) {
+        if (event.getLevel() instanceof ServerLevel level) {
+            STATES.remove(level);
+        }
+    }
+
+    // Looks for one item to merge with among the same item's runs in this and the neighbouring cells.
+    // Returns the number of checks it used, never more than the budget, or -1 if it ran out and should be retried.
+    private static int mergeItem(MergeState state, long key, ItemEntity item, int id, double radiusSq, int budget, boolean wholeTick) {
+        if (!canMerge(item)) {
+            return 0;
+        }
+        int checks = 0;
+        int x = SectionPos.x(key);
+        int y = SectionPos.y(key);
+        int z = SectionPos.z(key);
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dz = -1; dz <= 1; dz++) {
+                    MergeState.Cell cell = state.cells.get(SectionPos.asLong(x + dx, y + dy, z + dz));
+                    if (cell == null) {
+                        continue;
+                    }
+                    int start = cell.runStart(id);
+                    for (int j = start; j < cell.items.size() && cell.itemIds.getInt(j) == id; j++) {
+                        if (checks >= budget) {
+                            return wholeTick ? checks : -1;
+                        }
+                        checks++;
+                        ItemEntity other = cell.items.get(j);
+                        if (other == item) {
+                            continue;
+                        }
+                        if (!canMerge(other)) {
+                            // Gone or full stays that way until the next rebuild, so later lookups can start past it
+                            if (j == start && isSpent(other)) {
+                                cell.skipRunStart(id, j);
+                                start++;
+                            }
+                            continue;
+                        }
+                        if (item.distanceToSqr(other) <= radiusSq && tryMerge(item, other)) {
+                            return checks;
+                        }
+                    }
+                }
+            }
+        }
+        return checks;
+    }
+
+    private static boolean isSpent(ItemEntity item) {
+        ItemStack stack = item.getItem();
+        return !item.isAlive() || stack.isEmpty() || stack.getCount() >= stack.getMaxStackSize();
+    }
+
+    private static boolean canMerge(ItemEntity item) {
+        ItemStack stack = item.getItem();
+        // Items with a pickup delay are skipped entirely, that also leaves alone display items with an infinite delay
+        return item.isAlive()
+                && !item.hasPickUpDelay()
+                && item.getAge() != Short.MIN_VALUE
+                && !stack.isEmpty()
+                && stack.getCount() < stack.getMaxStackSize();
+    }
+
+    // Moves the stacks into whichever entity is younger, so nothing despawns earlier than it would have.
+    // Like vanilla, only items meant for the same player are merged, and on top of that only ones with the same Forge lifespan.
+    private static boolean tryMerge(ItemEntity a, ItemEntity b) {
+        if (!Objects.equals(a.target, b.target) || a.lifespan != b.lifespan) {
+            return false;
+        }
+        ItemStack stackA = a.getItem();
+        ItemStack stackB = b.getItem();
+        if (!ItemStack.isSameItemSameComponents(stackA, stackB) || stackA.getCount() + stackB.getCount() > stackA.getMaxStackSize()) {
+            return false;
+        }
+        ItemEntity target = a.getAge() <= b.getAge() ? a : b;
+        ItemEntity source = target == a ? b : a;
+        target.setItem(target.getItem().copyWithCount(stackA.getCount() + stackB.getCount()));
+        source.discard();
+        return true;
+    }
+
+    // Vanilla already stacks equal orbs into one entity with a count. We gather orbs of any value near the anchor
+    // and respawn their total as the fewest orbs that can hold it, but only when that actually means fewer entities.
+    // Returns checks used like mergeItem. If the budget runs out during a whole tick, whatever was gathered so far is merged.
+    private static int mergeOrb(ServerLevel level, MergeState state, long key, ExperienceOrb anchor, double radiusSq, int budget, boolean wholeTick) {
+        if (!anchor.isAlive()) {
+            return 0;
+        }
+        List<ExperienceOrb> nearby = state.nearbyOrbs;
+        nearby.clear();
+        int checks = 0;
+        long total = orbValue(anchor);
+        int x = SectionPos.x(key);
+        int y = SectionPos.y(key);
+        int z = SectionPos.z(key);
+        gather:
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dz = -1; dz <= 1; dz++) {
+                    MergeState.Cell cell = state.cells.get(SectionPos.asLong(x + dx, y + dy, z + dz));
+                    if (cell == null) {
+                        continue;
+                    }
+                    for (ExperienceOrb other : cell.orbs) {
+                        if (checks >= budget) {
+                            if (!wholeTick) {
+                                nearby.clear();
+                                return -1;
+                            }
+                            break gather;
+                        }
+                        checks++;
+                        if (other != anchor && other.isAlive() && anchor.distanceToSqr(other) <= radiusSq) {
+                            nearby.add(other);
+                            total += orbValue(other);
+                        }
+                    }
+                }
+            }
+        }
+        int orbs = nearby.size() + 1;
+        if (orbs >= 2 && total <= Integer.MAX_VALUE && orbsNeeded((int) total) < orbs) {
+            Vec3 position = anchor.position();
+            anchor.discard();
+            for (ExperienceOrb other : nearby) {
+                other.discard();
+            }
+            ExperienceOrb.award(level, position, (int) total);
+        }
+        nearby.clear();
+        return checks;
+    }
+
+    // count is opened up by our access transformer
+    private static long orbValue(ExperienceOrb orb) {
+        return (long) orb.getValue() * Math.max(1, orb.count);
+    }
+
+    private static int orbsNeeded(int total) {
+        int orbs = 0;
+        while (total > 0) {
+            total -= ExperienceOrb.getExperienceValue(total);
+            orbs++;
+        }
+        return orbs;
+    }
+}
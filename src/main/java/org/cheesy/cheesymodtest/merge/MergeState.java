@@ -0,0 +1,125 @@
+package org.cheesy.cheesymodtest.merge;
+
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.core.SectionPos;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.ExperienceOrb;
+import net.minecraft.world.entity.item.ItemEntity;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Per-level merge bookkeeping: every item and XP orb in the level, and a spatial hash of them keyed by packed
+// section position. Sections are 16 blocks wide and merge.radius is capped at 8, so anything in range of an
+// entity is in its own cell or one of the 26 around it.
+// The hash is a snapshot taken by rebuild(), which is then worked off in order from a cursor, a bounded number of checks per tick.
+class MergeState {
+    final ReferenceOpenHashSet<Entity> tracked = new ReferenceOpenHashSet<>();
+    final Long2ObjectOpenHashMap<Cell> cells = new Long2ObjectOpenHashMap<>();
+    final LongArrayList order = new LongArrayList();
+    // Scratch list for gathering orbs, reused so merging doesn't allocate
+    final List<ExperienceOrb> nearbyOrbs = new ArrayList<>();
+    private final List<Cell> pool = new ArrayList<>();
+    int cellCursor;
+    int entityCursor;
+    int ticksSinceRebuild;
+
+    boolean hasPending() {
+        return cellCursor < order.size();
+    }
+
+    void rebuild() {
+        for (Cell cell : cells.values()) {
+            cell.clear();
+            pool.add(cell);
+        }
+        cells.clear();
+        order.clear();
+        cellCursor = 0;
+        entityCursor = 0;
+
+        for (Entity entity : tracked) {
+            if (!entity.isAlive()) {
+                continue;
+            }
+            long key = SectionPos.asLong(SectionPos.blockToSectionCoord(entity.getBlockX()), SectionPos.blockToSectionCoord(entity.getBlockY()), SectionPos.blockToSectionCoord(entity.getBlockZ()));
+            Cell cell = cells.get(key);
+            if (cell == null) {
+                cell = pool.isEmpty() ? new Cell() : pool.remove(pool.size() - 1);
+                cells.put(key, cell);
+                order.add(key);
+            }
+            if (entity instanceof ItemEntity item) {
+                cell.items.add(item);
+            } else if (entity instanceof ExperienceOrb orb) {
+                cell.orbs.add(orb);
+            }
+        }
+        for (Cell cell : cells.values()) {
+            cell.sortItems();
+        }
+        ticksSinceRebuild = 0;
+    }
+
+    static int itemId(ItemEntity item) {
+        return BuiltInRegistries.ITEM.getId(item.getItem().getItem());
+    }
+
+    // The items in a cell are sorted by item id, so everything an item could merge with is one contiguous run
+    static final class Cell {
+        private static final Comparator<ItemEntity> BY_ITEM = Comparator.comparingInt(MergeState::itemId);
+
+        final List<ItemEntity> items = new ArrayList<>();
+        final IntArrayList itemIds = new IntArrayList();
+        final List<ExperienceOrb> orbs = new ArrayList<>();
+        // Where each run currently starts. Entries before it are gone or full and can't take part in any more merges.
+        private final Int2IntOpenHashMap runStarts = new Int2IntOpenHashMap();
+
+        int size() {
+            return items.size() + orbs.size();
+        }
+
+        int runStart(int id) {
+            int start = runStarts.getOrDefault(id, -1);
+            if (start >= 0) {
+                return start;
+            }
+            int low = 0;
+            int high = itemIds.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (itemIds.getInt(mid) < id) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            runStarts.put(id, low);
+            return low;
+        }
+
+        void skipRunStart(int id, int index) {
+            runStarts.put(id, index + 1);
+        }
+
+        private void sortItems() {
+            items.sort(BY_ITEM);
+            for (ItemEntity item : items) {
+                itemIds.add(itemId(item));
+            }
+        }
+
+        private void clear() {
+            items.clear();
+            itemIds.clear();
+            orbs.clear();
+            runStarts.clear();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package org.cheesy.cheesymodtest.perf;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+
+// Per-dimension tick statistics, owned and written by the server thread
+public class DimensionMetrics {
+    public final ResourceKey<Level> dimension;
+    public final LongHistogram tickNanos;
+    public final LongHistogram entities;
+    public final LongHistogram loadedChunks;
+
+    // Tracked from join/leave events so we never have to walk the entity list
+    int entityCount;
+    long tickStart;
+
+    DimensionMetrics(ResourceKey<Level> dimension, int recentSize) {
+        this.dimension = dimension;
+        this.tickNanos = new LongHistogram(recentSize);
+        this.entities = new LongHistogram(recentSize);
+        this.loadedChunks = new LongHistogram(recentSize);
+    }
+
+    public int entityCount() {
+        return entityCount;
+    }
+
+    void reset() {
+        tickNanos.reset();
+        entities.reset();
+        loadedChunks.reset();
+    }
+}
@@ -0,0 +1,195 @@
+package org.cheesy.cheesymodtest.perf;
+
+import net.minecraft.server.MinecraftServer;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.eventbus.api.EventPriority;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import org.cheesy.cheesymodtest.Cheesymodtest;
+import org.cheesy.cheesymodtest.Config;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Samples the server thread's stack, but only while a tick is already running long, and only keeps the samples
+// if that tick ends up over the configured threshold. Normal ticks finish before the sampler is armed,
+// so in the steady state the sampler thread just wakes up, reads two volatiles and goes back to sleep.
+// Kept samples are folded into a flame graph friendly file under cheesy-profiles/ in the server directory.
+@Mod.EventBusSubscriber(modid = Cheesymodtest.MOD_ID)
+public class LagSpikeProfiler implements Runnable {
+    // Sampling starts once a tick has used up its normal 50 ms budget (or the threshold, if that is lower)
+    private static final long ARM_NANOS = 50_000_000L;
+    // Enough completed tick durations to settle samples even if the sampler falls a few ticks behind
+    private static final int DURATION_SLOTS = 64;
+    private static final DateTimeFormatter FILE_DATE = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private static volatile LagSpikeProfiler active;
+
+    private final Thread serverThread;
+    private final Path outputFile;
+    private final long intervalMillis;
+    private final long thresholdNanos;
+    private final long armNanos;
+    private final Thread samplerThread;
+    private volatile boolean running = true;
+
+    // Written by the server thread
+    private final long[] tickDurations = new long[DURATION_SLOTS];
+    private volatile long tickSeq = -1;
+    private volatile long tickStart;
+    private volatile long completedSeq = -1;
+
+    // Only touched by the sampler thread
+    private final List<StackTraceElement[]> pending = new ArrayList<>();
+    private long pendingSeq = -1;
+    private final Map<String, Long> folded = new HashMap<>();
+    private int spikes;
+
+    private LagSpikeProfiler(MinecraftServer server) {
+        this.serverThread = server.getRunningThread();
+        this.outputFile = server.getServerDirectory().resolve("cheesy-profiles").resolve("spikes-" + LocalDateTime.now().format(FILE_DATE) + ".folded");
+        this.intervalMillis = Config.profilerSampleIntervalMs;
+        this.thresholdNanos = Config.profilerSpikeThresholdMs * 1_000_000L;
+        this.armNanos = Math.min(ARM_NANOS, thresholdNanos);
+        this.samplerThread = new Thread(this, "Cheesy Lag Spike Profiler");
+        this.samplerThread.setDaemon(true);
+        this.samplerThread.setPriority(Thread.MAX_PRIORITY);
+    }
+
+    public static void start(MinecraftServer server) {
+        stop();
+        if (!Config.profilerEnabled) {
+            return;
+        }
+        LagSpikeProfiler profiler = new LagSpikeProfiler(server);
+        active = profiler;
+        profiler.samplerThread.start();
+        Cheesymodtest.LOGGER.info("Lag spike profiler watching ticks over {} ms, sampling every {} ms", Config.profilerSpikeThresholdMs, profiler.intervalMillis);
+    }
+
+    public static void stop() {
+        LagSpikeProfiler profiler = active;
+        if (profiler == null) {
+            return;
+        }
+        active = null;
+        profiler.running = false;
+        profiler.samplerThread.interrupt();
+        try {
+            profiler.samplerThread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @SubscribeEvent(priority = EventPriority.HIGHEST)
+    public static void onServerTickPre(TickEvent.ServerTickEvent.Pre event) {
+        LagSpikeProfiler profiler = active;
+        if (profiler != null) {
+            profiler.tickSeq++;
+            profiler.tickStart = System.nanoTime();
+        }
+    }
+
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public static void onServerTickPost(TickEvent.ServerTickEvent.Post event) {
+        LagSpikeProfiler profiler = active;
+        if (profiler != null && profiler.tickStart != 0) {
+            long seq = profiler.tickSeq;
+            profiler.tickDurations[(int) (seq % DURATION_SLOTS)] = System.nanoTime() - profiler.tickStart;
+            profiler.tickStart = 0;
+            profiler.completedSeq = seq;
+        }
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                Thread.sleep(intervalMillis);
+            } catch (InterruptedException e) {
+                break;
+            }
+            settlePending();
+
+            long start = tickStart;
+            long seq = tickSeq;
+            if (start == 0 || System.nanoTime() - start < armNanos) {
+                continue;
+            }
+            StackTraceElement[] stack = serverThread.getStackTrace();
+            // The tick may have finished while we were walking the stack, in which case the sample belongs to nobody
+            if (tickSeq != seq || tickStart != start) {
+                continue;
+            }
+            if (pendingSeq != seq) {
+                pending.clear();
+                pendingSeq = seq;
+            }
+            pending.add(stack);
+        }
+        if (spikes > 0) {
+            write();
+        }
+    }
+
+    // Once the tick we collected samples for has finished, either fold them in or drop them
+    private void settlePending() {
+        if (pendingSeq < 0 || completedSeq < pendingSeq) {
+            return;
+        }
+        long duration = completedSeq - pendingSeq < DURATION_SLOTS ? tickDurations[(int) (pendingSeq % DURATION_SLOTS)] : 0;
+        if (duration >= thresholdNanos) {
+            for (StackTraceElement[] stack : pending) {
+                folded.merge(fold(stack), 1L, Long::sum);
+            }
+            spikes++;
+            Cheesymodtest.LOGGER.warn("Tick took {} ms, kept {} stack samples in {}", duration / 1_000_000L, pending.size(), outputFile);
+            write();
+        }
+        pending.clear();
+        pendingSeq = -1;
+    }
+
+    // Folded stack format: frames from the root down, separated by ';'
+    private static String fold(StackTraceElement[] stack) {
+        StringBuilder builder = new StringBuilder(stack.length * 48);
+        for (int i = stack.length - 1; i >= 0; i--) {
+            builder.append(stack[i].getClassName()).append('.').append(stack[i].getMethodName());
+            if (i > 0) {
+                builder.append(';');
+            }
+        }
+        return builder.toString();
+    }
+
+    // Rewrites the whole file each time so it is always a complete profile, even if the server dies
+    private void write() {
+        try {
+            Files.createDirectories(outputFile.getParent());
+            Path temp = outputFile.resolveSibling(outputFile.getFileName() + ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, Long> entry : new TreeMap<>(folded).entrySet()) {
+                    writer.write(entry.getKey());
+                    writer.write(' ');
+                    writer.write(Long.toString(entry.getValue()));
+                    writer.write('\n');
+                }
+            }
+            Files.move(temp, outputFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Cheesymodtest.LOGGER.error("Failed to write lag spike profile {}", outputFile, e);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package org.cheesy.cheesymodtest.perf;
+
+import java.util.Arrays;
+
+// A fixed-size, log-linear histogram (HDR-style) plus a ring buffer of the most recent samples.
+// Everything is allocated up front so recording never creates garbage.
+// There is a single writer (the server thread); readers on other threads get a slightly racy but consistent-enough view.
+public class LongHistogram {
+    // 32 sub-buckets per power of two keeps the relative error around 3%
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Values are clamped to 2^36 - 1, which is about 68 seconds when recording nanoseconds
+    private static final int MAX_EXPONENT = 35;
+    private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+    private static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKET_COUNT];
+    private final long[] recent;
+    private final int recentMask;
+    private long sum;
+    private long max;
+    // Written last by record() so readers that read it first see the rest of the update
+    private volatile long totalCount;
+
+    // recentSize is rounded up to a power of two so the ring index is a mask instead of a modulo
+    public LongHistogram(int recentSize) {
+        int size = Integer.highestOneBit(Math.max(1, recentSize - 1)) << 1;
+        this.recent = new long[size];
+        this.recentMask = size - 1;
+    }
+
+    public void record(long value) {
+        long clamped = value < 0 ? 0 : Math.min(value, MAX_VALUE);
+        long count = totalCount;
+        counts[bucketIndex(clamped)]++;
+        recent[(int) (count & recentMask)] = clamped;
+        sum += clamped;
+        if (clamped > max) {
+            max = clamped;
+        }
+        totalCount = count + 1;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0L);
+        Arrays.fill(recent, 0L);
+        sum = 0;
+        max = 0;
+        totalCount = 0;
+    }
+
+    public long count() {
+        return totalCount;
+    }
+
+    public long sum() {
+        return sum;
+    }
+
+    public long max() {
+        return max;
+    }
+
+    public double mean() {
+        long count = totalCount;
+        return count == 0 ? 0.0 : (double) sum / count;
+    }
+
+    // The value at the given percentile (0-100), reported as the midpoint of the matching bucket
+    public long valueAtPercentile(double percentile) {
+        long count = totalCount;
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(count * Math.min(100.0, percentile) / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                long low = bucketLowerBound(i);
+                long high = i + 1 < BUCKET_COUNT ? bucketLowerBound(i + 1) : MAX_VALUE;
+                return Math.min(max, low + (high - low) / 2);
+            }
+        }
+        return max;
+    }
+
+    // The most recently recorded value, or 0 if nothing has been recorded yet
+    public long latest() {
+        long count = totalCount;
+        return count == 0 ? 0 : recent[(int) ((count - 1) & recentMask)];
+    }
+
+    public double recentMean(int samples) {
+        long count = totalCount;
+        int n = (int) Math.min(Math.min(samples, recent.length), count);
+        if (n == 0) {
+            return 0.0;
+        }
+        long total = 0;
+        for (long i = count - n; i < count; i++) {
+            total += recent[(int) (i & recentMask)];
+        }
+        return (double) total / n;
+    }
+
+    public long recentMax(int samples) {
+        long count = totalCount;
+        int n = (int) Math.min(Math.min(samples, recent.length), count);
+        long result = 0;
+        for (long i = count - n; i < count; i++) {
+            result = Math.max(result, recent[(int) (i & recentMask)]);
+        }
+        return result;
+    }
+
+    public int recentCapacity() {
+        return recent.length;
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int top = (int) (value >>> shift);
+        return (shift + 1) * SUB_BUCKETS + (top - SUB_BUCKETS);
+    }
+
+    static long bucketLowerBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int group = index / SUB_BUCKETS;
+        int sub = index % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + sub) << (group - 1);
+    }
+}
@@ -0,0 +1,128 @@
+package org.cheesy.cheesymodtest.perf;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import net.minecraftforge.event.server.ServerStartingEvent;
+import net.minecraftforge.event.server.ServerStoppingEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import org.cheesy.cheesymodtest.Cheesymodtest;
+import org.cheesy.cheesymodtest.Config;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Optional Prometheus text endpoint for the tick metrics. It only ever binds to the loopback address,
+// so exposing it further is left to whatever reverse proxy or agent runs next to the server.
+@Mod.EventBusSubscriber(modid = Cheesymodtest.MOD_ID)
+public class MetricsEndpoint {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private static HttpServer httpServer;
+    private static ExecutorService executor;
+
+    @SubscribeEvent
+    public static void onServerStarting(ServerStartingEvent event) {
+        if (Config.metricsPort <= 0) {
+            return;
+        }
+        try {
+            httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), Config.metricsPort), 0);
+            executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "Cheesy Metrics Endpoint");
+                thread.setDaemon(true);
+                return thread;
+            });
+            httpServer.setExecutor(executor);
+            httpServer.createContext("/metrics", MetricsEndpoint::handle);
+            httpServer.start();
+            Cheesymodtest.LOGGER.info("Serving tick metrics on http://{}:{}/metrics", InetAddress.getLoopbackAddress().getHostAddress(), Config.metricsPort);
+        } catch (IOException e) {
+            Cheesymodtest.LOGGER.error("Failed to start the metrics endpoint on port {}", Config.metricsPort, e);
+            stop();
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStopping(ServerStoppingEvent event) {
+        stop();
+    }
+
+    private static void stop() {
+        if (httpServer != null) {
+            httpServer.stop(0);
+            httpServer = null;
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = render().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    static String render() {
+        StringBuilder out = new StringBuilder(4096);
+
+        out.append("# HELP cheesy_server_tick_seconds Time spent in a full server tick.\n");
+        out.append("# TYPE cheesy_server_tick_seconds summary\n");
+        writeSummary(out, "cheesy_server_tick_seconds", "", TickMetrics.serverTickNanos());
+
+        out.append("# HELP cheesy_level_tick_seconds Time spent ticking a single dimension.\n");
+        out.append("# TYPE cheesy_level_tick_seconds summary\n");
+        for (DimensionMetrics metrics : TickMetrics.dimensions()) {
+            writeSummary(out, "cheesy_level_tick_seconds", dimensionLabel(metrics), metrics.tickNanos);
+        }
+
+        out.append("# HELP cheesy_level_entities Entities currently in a dimension.\n");
+        out.append("# TYPE cheesy_level_entities gauge\n");
+        for (DimensionMetrics metrics : TickMetrics.dimensions()) {
+            out.append("cheesy_level_entities{").append(dimensionLabel(metrics)).append("} ").append(metrics.entities.latest()).append('\n');
+        }
+
+        out.append("# HELP cheesy_level_loaded_chunks Chunks currently loaded in a dimension.\n");
+        out.append("# TYPE cheesy_level_loaded_chunks gauge\n");
+        for (DimensionMetrics metrics : TickMetrics.dimensions()) {
+            out.append("cheesy_level_loaded_chunks{").append(dimensionLabel(metrics)).append("} ").append(metrics.loadedChunks.latest()).append('\n');
+        }
+        return out.toString();
+    }
+
+    private static void writeSummary(StringBuilder out, String name, String labels, LongHistogram histogram) {
+        String separator = labels.isEmpty() ? "" : ",";
+        for (double quantile : QUANTILES) {
+            out.append(name).append('{').append(labels).append(separator).append("quantile=\"").append(quantile).append("\"} ")
+                    .append(seconds(histogram.valueAtPercentile(quantile * 100.0))).append('\n');
+        }
+        String suffixLabels = labels.isEmpty() ? "" : "{" + labels + "}";
+        out.append(name).append("_sum").append(suffixLabels).append(' ').append(seconds(histogram.sum())).append('\n');
+        out.append(name).append("_count").append(suffixLabels).append(' ').append(histogram.count()).append('\n');
+    }
+
+    private static String dimensionLabel(DimensionMetrics metrics) {
+        return "dimension=\"" + metrics.dimension.location() + "\"";
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1.0e9);
+    }
+}
@@ -0,0 +1,114 @@
+package org.cheesy.cheesymodtest.perf;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.Level;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.entity.EntityJoinLevelEvent;
+import net.minecraftforge.event.entity.EntityLeaveLevelEvent;
+import net.minecraftforge.event.level.LevelEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.EventPriority;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import org.cheesy.cheesymodtest.Cheesymodtest;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Times every server and level tick and keeps per-dimension entity and chunk counts.
+// The per-tick work is a couple of System.nanoTime() calls and a few array writes, so it is cheap enough to leave on.
+@Mod.EventBusSubscriber(modid = Cheesymodtest.MOD_ID)
+public class TickMetrics {
+    // One minute of ticks at 20 TPS
+    public static final int RECENT_TICKS = 1200;
+
+    private static final LongHistogram SERVER_TICK_NANOS = new LongHistogram(RECENT_TICKS);
+    private static final Map<ResourceKey<Level>, DimensionMetrics> DIMENSIONS = new ConcurrentHashMap<>();
+
+    private static long serverTickStart;
+
+    public static LongHistogram serverTickNanos() {
+        return SERVER_TICK_NANOS;
+    }
+
+    public static Collection<DimensionMetrics> dimensions() {
+        return DIMENSIONS.values();
+    }
+
+    public static void reset() {
+        SERVER_TICK_NANOS.reset();
+        DIMENSIONS.values().forEach(DimensionMetrics::reset);
+    }
+
+    private static DimensionMetrics metrics(ServerLevel level) {
+        // Look up first so the steady state never touches computeIfAbsent
+        DimensionMetrics metrics = DIMENSIONS.get(level.dimension());
+        if (metrics == null) {
+            metrics = DIMENSIONS.computeIfAbsent(level.dimension(), key -> new DimensionMetrics(key, RECENT_TICKS));
+        }
+        return metrics;
+    }
+
+    @SubscribeEvent(priority = EventPriority.HIGHEST)
+    public static void onServerTickPre(TickEvent.ServerTickEvent.Pre event) {
+        serverTickStart = System.nanoTime();
+    }
+
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public static void onServerTickPost(TickEvent.ServerTickEvent.Post event) {
+        if (serverTickStart != 0) {
+            SERVER_TICK_NANOS.record(System.nanoTime() - serverTickStart);
+        }
+    }
+
+    @SubscribeEvent(priority = EventPriority.HIGHEST)
+    public static void onLevelTickPre(TickEvent.LevelTickEvent.Pre event) {
+        if (event.level instanceof ServerLevel level) {
+            metrics(level).tickStart = System.nanoTime();
+        }
+    }
+
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public static void onLevelTickPost(TickEvent.LevelTickEvent.Post event) {
+        if (event.level instanceof ServerLevel level) {
+            DimensionMetrics metrics = metrics(level);
+            if (metrics.tickStart != 0) {
+                metrics.tickNanos.record(System.nanoTime() - metrics.tickStart);
+            }
+            metrics.entities.record(metrics.entityCount);
+            metrics.loadedChunks.record(level.getChunkSource().getLoadedChunksCount());
+        }
+    }
+
+    // Lowest priority without receiveCanceled, so we only count entities that really joined
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public static void onEntityJoin(EntityJoinLevelEvent event) {
+        if (event.getLevel() instanceof ServerLevel level) {
+            metrics(level).entityCount++;
+        }
+    }
+
+    @SubscribeEvent
+    public static void onEntityLeave(EntityLeaveLevelEvent event) {
+        if (event.getLevel() instanceof ServerLevel level) {
+            DimensionMetrics metrics = metrics(level);
+            metrics.entityCount = Math.max(0, metrics.entityCount - 1);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onLevelUnload(LevelEvent.Unload event) {
+        if (event.getLevel() instanceof ServerLevel level) {
+            DIMENSIONS.remove(level.dimension());
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        DIMENSIONS.clear();
+        SERVER_TICK_NANOS.reset();
+        serverTickStart = 0;
+    }
+}
@@ -0,0 +1,91 @@
+package org.cheesy.cheesymodtest.pregen;
+
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.saveddata.SavedData;
+import net.minecraft.world.level.saveddata.SavedDataType;
+import org.cheesy.cheesymodtest.Cheesymodtest;
+
+// Saved progress of the pre-generation job for one dimension, so a restart resumes where it left off
+public class PregenData extends SavedData {
+    public static final Codec<PregenData> CODEC = RecordCodecBuilder.create(instance -> instance.group(
+            Codec.BOOL.fieldOf("active").forGetter(data -> data.active),
+            Codec.INT.fieldOf("centerX").forGetter(data -> data.centerX),
+            Codec.INT.fieldOf("centerZ").forGetter(data -> data.centerZ),
+            Codec.INT.fieldOf("radius").forGetter(data -> data.radius),
+            Codec.LONG.fieldOf("nextIndex").forGetter(data -> data.nextIndex)
+    ).apply(instance, PregenData::new));
+
+    // Stored in each dimension's own data folder, no datafixing needed for our own data
+    public static final SavedDataType<PregenData> TYPE = new SavedDataType<>(Cheesymodtest.MOD_ID + "_pregen", PregenData::new, CODEC, null);
+
+    private boolean active;
+    // Center and radius in chunks
+    private int centerX;
+    private int centerZ;
+    private int radius;
+    // Every spiral index below this one has finished generating
+    private long nextIndex;
+
+    public PregenData() {
+    }
+
+    private PregenData(boolean active, int centerX, int centerZ, int radius, long nextIndex) {
+        this.active = active;
+        this.centerX = centerX;
+        this.centerZ = centerZ;
+        this.radius = radius;
+        this.nextIndex = nextIndex;
+    }
+
+    public static PregenData get(ServerLevel level) {
+        return level.getDataStorage().computeIfAbsent(TYPE);
+    }
+
+    public void start(int centerX, int centerZ, int radius) {
+        this.active = true;
+        this.centerX = centerX;
+        this.centerZ = centerZ;
+        this.radius = radius;
+        this.nextIndex = 0;
+        setDirty();
+    }
+
+    public void finish() {
+        this.active = false;
+        setDirty();
+    }
+
+    public void setNextIndex(long nextIndex) {
+        if (this.nextIndex != nextIndex) {
+            this.nextIndex = nextIndex;
+            setDirty();
+        }
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public int centerX() {
+        return centerX;
+    }
+
+    public int centerZ() {
+        return centerZ;
+    }
+
+    public int radius() {
+        return radius;
+    }
+
+    public long nextIndex() {
+        return nextIndex;
+    }
+
+    public long total() {
+        long side = 2L * radius + 1;
+        return side * side;
+    }
+}
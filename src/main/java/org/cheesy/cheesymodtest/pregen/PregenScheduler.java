@@ -0,0 +1,108 @@
+package org.cheesy.cheesymodtest.pregen;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.TicketType;
+import net.minecraft.world.level.Level;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.server.ServerStartedEvent;
+import net.minecraftforge.event.server.ServerStoppingEvent;
+import net.minecraftforge.eventbus.api.IEventBus;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.registries.DeferredRegister;
+import net.minecraftforge.registries.RegistryObject;
+import org.cheesy.cheesymodtest.Cheesymodtest;
+import org.cheesy.cheesymodtest.Config;
+import org.cheesy.cheesymodtest.perf.TickMetrics;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Drives the pre-generation jobs, one per dimension, from the end of every server tick
+@Mod.EventBusSubscriber(modid = Cheesymodtest.MOD_ID)
+public class PregenScheduler {
+    private static final DeferredRegister<TicketType> TICKET_TYPES = DeferredRegister.create(Registries.TICKET_TYPE, Cheesymodtest.MOD_ID);
+    // Loads a chunk all the way to FULL without ticking it. Not persistent, so nothing is left behind in the save.
+    static final RegistryObject<TicketType> TICKET = TICKET_TYPES.register("pregen", () -> new TicketType(TicketType.NO_TIMEOUT, false, TicketType.TicketUse.LOADING));
+    // Log progress every 30 seconds
+    private static final int LOG_INTERVAL_TICKS = 600;
+
+    private static final Map<ResourceKey<Level>, PregenTask> TASKS = new LinkedHashMap<>();
+    private static int ticksSinceLog;
+
+    public static void register(IEventBus modEventBus) {
+        TICKET_TYPES.register(modEventBus);
+    }
+
+    public static Collection<PregenTask> tasks() {
+        return TASKS.values();
+    }
+
+    public static void start(ServerLevel level, int centerChunkX, int centerChunkZ, int radiusChunks) {
+        cancel(level);
+        PregenData data = PregenData.get(level);
+        data.start(centerChunkX, centerChunkZ, radiusChunks);
+        TASKS.put(level.dimension(), new PregenTask(level, data, Config.pregenMaxInFlight));
+    }
+
+    public static boolean cancel(ServerLevel level) {
+        PregenTask task = TASKS.remove(level.dimension());
+        if (task == null) {
+            return false;
+        }
+        task.releaseAll();
+        PregenData.get(level).finish();
+        return true;
+    }
+
+    @SubscribeEvent
+    public static void onServerStarted(ServerStartedEvent event) {
+        for (ServerLevel level : event.getServer().getAllLevels()) {
+            PregenData data = PregenData.get(level);
+            if (data.isActive()) {
+                PregenTask task = new PregenTask(level, data, Config.pregenMaxInFlight);
+                TASKS.put(level.dimension(), task);
+                Cheesymodtest.LOGGER.info("Resuming chunk pre-generation for {}", task.describe());
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerTickPost(TickEvent.ServerTickEvent.Post event) {
+        if (TASKS.isEmpty()) {
+            return;
+        }
+        MinecraftServer server = event.getServer();
+        long lastTickNanos = TickMetrics.serverTickNanos().latest();
+        long budgetNanos = Config.pregenMsptBudget * 1_000_000L;
+        boolean playersOnline = server.getPlayerCount() > 0;
+        boolean log = ++ticksSinceLog >= LOG_INTERVAL_TICKS;
+        if (log) {
+            ticksSinceLog = 0;
+        }
+
+        var iterator = TASKS.values().iterator();
+        while (iterator.hasNext()) {
+            PregenTask task = iterator.next();
+            task.tick(lastTickNanos, budgetNanos, playersOnline);
+            if (task.isDone()) {
+                iterator.remove();
+                PregenData.get(task.level()).finish();
+                Cheesymodtest.LOGGER.info("Chunk pre-generation finished for {}", task.describe());
+            } else if (log) {
+                Cheesymodtest.LOGGER.info("Chunk pre-generation {}", task.describe());
+            }
+        }
+    }
+
+    // Progress is already saved, just let go of the tickets
+    @SubscribeEvent
+    public static void onServerStopping(ServerStoppingEvent event) {
+        TASKS.values().forEach(PregenTask::releaseAll);
+        TASKS.clear();
+    }
+}
@@ -0,0 +1,147 @@
+package org.cheesy.cheesymodtest.pregen;
+
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+
+import java.util.Locale;
+
+// A running pre-generation job for one dimension. Chunks are requested in a square spiral around the center by adding
+// a pregen ticket, which lets the chunk system generate them on its worldgen executors. Nothing here ever waits on a chunk:
+// each later tick polls whether the chunk has reached FULL, and only then is its ticket dropped.
+// Only ever touched from the server thread.
+public class PregenTask {
+    private final ServerLevel level;
+    private final PregenData data;
+    private final long total;
+    private final int maxInFlight;
+
+    // Spiral indices of the chunks currently generating
+    private final long[] inFlightIndex;
+    private int inFlight;
+    private int limit = 1;
+    private long issued;
+    private long completed;
+
+    private long rateWindowStart = System.nanoTime();
+    private long rateWindowCompleted;
+    private double chunksPerSecond;
+
+    PregenTask(ServerLevel level, PregenData data, int maxInFlight) {
+        this.level = level;
+        this.data = data;
+        this.total = data.total();
+        this.maxInFlight = maxInFlight;
+        this.inFlightIndex = new long[maxInFlight];
+        this.issued = data.nextIndex();
+        this.completed = data.nextIndex();
+    }
+
+    public ServerLevel level() {
+        return level;
+    }
+
+    public boolean isDone() {
+        return issued >= total && inFlight == 0;
+    }
+
+    // Reaps finished chunks, adapts the number of chunks in flight to the last tick time and issues new requests
+    void tick(long lastTickNanos, long budgetNanos, boolean playersOnline) {
+        for (int i = 0; i < inFlight; ) {
+            long index = inFlightIndex[i];
+            if (level.getChunkSource().getChunkNow(data.centerX() + spiralX(index), data.centerZ() + spiralZ(index)) != null) {
+                release(index);
+                completed++;
+                inFlight--;
+                inFlightIndex[i] = inFlightIndex[inFlight];
+            } else {
+                i++;
+            }
+        }
+
+        // Additive increase, multiplicative decrease, like TCP congestion control. With nobody online there is no one to lag.
+        if (!playersOnline) {
+            limit = maxInFlight;
+        } else if (lastTickNanos > budgetNanos) {
+            limit = Math.max(1, limit / 2);
+        } else if (lastTickNanos < budgetNanos * 3 / 4) {
+            limit = Math.min(maxInFlight, limit + 1);
+        }
+
+        while (inFlight < limit && issued < total) {
+            long index = issued++;
+            int x = data.centerX() + spiralX(index);
+            int z = data.centerZ() + spiralZ(index);
+            level.getChunkSource().addTicketWithRadius(PregenScheduler.TICKET.get(), new ChunkPos(x, z), 0);
+            inFlightIndex[inFlight++] = index;
+        }
+
+        // Everything below the lowest index still in flight is done, that's where a restart picks up again
+        long resumeIndex = issued;
+        for (int i = 0; i < inFlight; i++) {
+            resumeIndex = Math.min(resumeIndex, inFlightIndex[i]);
+        }
+        data.setNextIndex(resumeIndex);
+
+        long now = System.nanoTime();
+        if (now - rateWindowStart >= 1_000_000_000L) {
+            double rate = (completed - rateWindowCompleted) * 1.0e9 / (now - rateWindowStart);
+            chunksPerSecond = chunksPerSecond == 0 ? rate : chunksPerSecond * 0.7 + rate * 0.3;
+            rateWindowStart = now;
+            rateWindowCompleted = completed;
+        }
+    }
+
+    // Drops the tickets of everything still in flight, used when the job is cancelled or the server stops
+    void releaseAll() {
+        for (int i = 0; i < inFlight; i++) {
+            release(inFlightIndex[i]);
+        }
+        inFlight = 0;
+    }
+
+    private void release(long index) {
+        level.getChunkSource().removeTicketWithRadius(PregenScheduler.TICKET.get(), new ChunkPos(data.centerX() + spiralX(index), data.centerZ() + spiralZ(index)), 0);
+    }
+
+    public String describe() {
+        double percent = total == 0 ? 100.0 : completed * 100.0 / total;
+        String eta = chunksPerSecond > 0 ? formatDuration((long) ((total - completed) / chunksPerSecond)) : "unknown";
+        return String.format(Locale.ROOT, "%s: %d/%d chunks (%.1f%%), %.1f chunks/s, %d in flight, ETA %s",
+                level.dimension().location(), completed, total, percent, chunksPerSecond, inFlight, eta);
+    }
+
+    private static String formatDuration(long seconds) {
+        return String.format(Locale.ROOT, "%dh %02dm %02ds", seconds / 3600, (seconds / 60) % 60, seconds % 60);
+    }
+
+    // Square spiral around (0, 0): index 0 is the center, then each ring of radius k covers indices up to (2k+1)^2 - 1
+    static int spiralX(long index) {
+        return (int) spiral(index, true);
+    }
+
+    static int spiralZ(long index) {
+        return (int) spiral(index, false);
+    }
+
+    private static long spiral(long n, boolean wantX) {
+        if (n == 0) {
+            return 0;
+        }
+        long k = (long) Math.ceil((Math.sqrt(n + 1) - 1) / 2);
+        long t = 2 * k + 1;
+        long m = t * t;
+        t -= 1;
+        if (n >= m - t) {
+            return wantX ? k - (m - n) : -k;
+        }
+        m -= t;
+        if (n >= m - t) {
+            return wantX ? -k : -k + (m - n);
+        }
+        m -= t;
+        if (n >= m - t) {
+            return wantX ? -k + (m - n) : k;
+        }
+        return wantX ? k : k - (m - n - t);
+    }
+}
@@ -0,0 +1,157 @@
+package org.cheesy.cheesymodtest.region;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+// Writes a copy of a region file with every chunk packed back to back, dropping all free sectors.
+// Optionally recompresses gzip, zlib and uncompressed chunks as zlib at the best compression level.
+// LZ4 and custom compressed chunks are always copied as they are, since decoding them needs the game's libraries.
+// Chunks whose offsets or headers are broken can't be copied and are dropped, vanilla treats them as missing anyway.
+// Never modifies the source; only run this on a world that isn't loaded.
+public class RegionCompactor {
+    public record Result(long bytesBefore, long bytesAfter, int recompressedChunks, int droppedChunks) {
+    }
+
+    public static Result compact(Path source, Path targetDir, boolean recompress) throws IOException {
+        Path target = targetDir.resolve(source.getFileName());
+        if (Files.exists(target) && Files.isSameFile(source, target)) {
+            throw new IOException("Refusing to compact " + source + " onto itself");
+        }
+        Path temp = targetDir.resolve(source.getFileName() + ".tmp");
+        int recompressed = 0;
+        int dropped = 0;
+
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long size = in.size();
+            if (size < RegionFileAnalyzer.HEADER_BYTES) {
+                Files.deleteIfExists(temp);
+                return new Result(size, 0, 0, 0);
+            }
+            MappedByteBuffer header = in.map(FileChannel.MapMode.READ_ONLY, 0, RegionFileAnalyzer.HEADER_BYTES);
+            ByteBuffer newHeader = ByteBuffer.allocate(RegionFileAnalyzer.HEADER_BYTES);
+            // Timestamps are kept as they are
+            newHeader.put(RegionStats.SECTOR_BYTES, header, RegionStats.SECTOR_BYTES, RegionStats.SECTOR_BYTES);
+
+            long sectorsInFile = (size + RegionStats.SECTOR_BYTES - 1) / RegionStats.SECTOR_BYTES;
+            int nextSector = 2;
+            ByteBuffer lengthBuffer = ByteBuffer.allocate(5);
+            for (int i = 0; i < RegionFileAnalyzer.CHUNKS_PER_REGION; i++) {
+                int location = header.getInt(i * 4);
+                int offset = location >>> 8;
+                int count = location & 0xFF;
+                if (location == 0) {
+                    continue;
+                }
+                if (offset < 2 || offset + count > sectorsInFile) {
+                    dropped++;
+                    continue;
+                }
+
+                lengthBuffer.clear();
+                readFully(in, lengthBuffer, (long) offset * RegionStats.SECTOR_BYTES);
+                int length = lengthBuffer.getInt(0);
+                if (length < 1 || length + 4L > Math.min((long) count * RegionStats.SECTOR_BYTES, size - (long) offset * RegionStats.SECTOR_BYTES)) {
+                    dropped++;
+                    continue;
+                }
+                ByteBuffer chunk = ByteBuffer.allocate(length + 4);
+                readFully(in, chunk, (long) offset * RegionStats.SECTOR_BYTES);
+                chunk.flip();
+
+                int type = chunk.get(4) & 0xFF;
+                if ((type & RegionFileAnalyzer.EXTERNAL_FLAG) != 0) {
+                    Path external = RegionFileAnalyzer.externalFile(source, i);
+                    if (external != null && Files.exists(external)) {
+                        Files.copy(external, targetDir.resolve(external.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+                    }
+                } else if (recompress) {
+                    ByteBuffer recompressedChunk = recompress(chunk, type);
+                    if (recompressedChunk != null && recompressedChunk.remaining() < chunk.remaining()) {
+                        chunk = recompressedChunk;
+                        recompressed++;
+                    }
+                }
+
+                // Recompressing only ever shrinks a chunk, so it still fits in the 255 sectors an inline chunk can use
+                int sectors = (chunk.remaining() + RegionStats.SECTOR_BYTES - 1) / RegionStats.SECTOR_BYTES;
+                writeFully(out, chunk, (long) nextSector * RegionStats.SECTOR_BYTES);
+                newHeader.putInt(i * 4, nextSector << 8 | sectors);
+                nextSector += sectors;
+            }
+
+            // Pad the last sector so the file length stays a multiple of the sector size
+            long end = (long) nextSector * RegionStats.SECTOR_BYTES;
+            if (out.size() < end) {
+                writeFully(out, ByteBuffer.allocate(1), end - 1);
+            }
+            newHeader.clear();
+            writeFully(out, newHeader, 0);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        return new Result(Files.size(source), Files.size(target), recompressed, dropped);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    // Returns the chunk recompressed as zlib, or null if we can't decode its current compression
+    private static ByteBuffer recompress(ByteBuffer chunk, int type) throws IOException {
+        byte[] payload = new byte[chunk.remaining() - 5];
+        chunk.get(5, payload);
+        byte[] raw;
+        switch (type) {
+            case RegionFileAnalyzer.VERSION_GZIP -> raw = readAll(new GZIPInputStream(new ByteArrayInputStream(payload)));
+            case RegionFileAnalyzer.VERSION_DEFLATE -> raw = readAll(new InflaterInputStream(new ByteArrayInputStream(payload)));
+            case RegionFileAnalyzer.VERSION_NONE -> raw = payload;
+            default -> {
+                return null;
+            }
+        }
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 4 + 64);
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (DeflaterOutputStream stream = new DeflaterOutputStream(compressed, deflater)) {
+            stream.write(raw);
+        } finally {
+            deflater.end();
+        }
+
+        ByteBuffer result = ByteBuffer.allocate(compressed.size() + 5);
+        result.putInt(compressed.size() + 1);
+        result.put((byte) RegionFileAnalyzer.VERSION_DEFLATE);
+        result.put(compressed.toByteArray());
+        result.flip();
+        return result;
+    }
+
+    private static byte[] readAll(InputStream stream) throws IOException {
+        try (stream) {
+            return stream.readAllBytes();
+        }
+    }
+}
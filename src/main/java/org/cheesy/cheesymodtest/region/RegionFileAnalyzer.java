@@ -0,0 +1,114 @@
+package org.cheesy.cheesymodtest.region;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Reads the layout of an .mca region file without going through RegionFile.
+// The 8 KiB header (sector offsets and timestamps) is memory mapped, and each chunk only costs a 5 byte read of its
+// length and compression type. This class is plain Java on purpose so RegionTool can run outside of the game.
+public class RegionFileAnalyzer {
+    // Same ids as RegionFileVersion, the high bit of the type byte marks a chunk stored in an external .mcc file
+    public static final int VERSION_GZIP = 1;
+    public static final int VERSION_DEFLATE = 2;
+    public static final int VERSION_NONE = 3;
+    public static final int VERSION_LZ4 = 4;
+    public static final int VERSION_CUSTOM = 127;
+    public static final int EXTERNAL_FLAG = 0x80;
+
+    public static final int HEADER_BYTES = 2 * RegionStats.SECTOR_BYTES;
+    public static final int CHUNKS_PER_REGION = 1024;
+    private static final Pattern REGION_NAME = Pattern.compile("r\\.(-?\\d+)\\.(-?\\d+)\\.mca");
+
+    public static RegionStats analyze(Path file) {
+        RegionStats stats = new RegionStats();
+        stats.files = 1;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int sectors = (int) ((size + RegionStats.SECTOR_BYTES - 1) / RegionStats.SECTOR_BYTES);
+            stats.fileSectors = sectors;
+            if (size < HEADER_BYTES) {
+                // Empty or truncated, all of it is waste
+                return stats;
+            }
+
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            BitSet used = new BitSet(sectors);
+            used.set(0, 2);
+            ByteBuffer chunkHeader = ByteBuffer.allocate(5);
+            for (int i = 0; i < CHUNKS_PER_REGION; i++) {
+                int location = header.getInt(i * 4);
+                if (location == 0) {
+                    continue;
+                }
+                int offset = location >>> 8;
+                int count = location & 0xFF;
+                // Out of bounds or overlapping another chunk
+                int clash = used.nextSetBit(offset);
+                if (offset < 2 || count == 0 || offset + count > sectors || clash >= 0 && clash < offset + count) {
+                    stats.corruptChunks++;
+                    continue;
+                }
+                used.set(offset, offset + count);
+
+                chunkHeader.clear();
+                channel.read(chunkHeader, (long) offset * RegionStats.SECTOR_BYTES);
+                if (chunkHeader.position() < 5) {
+                    stats.corruptChunks++;
+                    continue;
+                }
+                int length = chunkHeader.getInt(0);
+                int type = chunkHeader.get(4) & 0xFF;
+                stats.chunks++;
+                stats.usedSectors += count;
+                stats.compression[type & ~EXTERNAL_FLAG]++;
+                if ((type & EXTERNAL_FLAG) != 0) {
+                    stats.externalChunks++;
+                    Path external = externalFile(file, i);
+                    if (external != null && Files.exists(external)) {
+                        stats.externalBytes += Files.size(external);
+                    }
+                } else {
+                    stats.paddingBytes += Math.max(0, (long) count * RegionStats.SECTOR_BYTES - length - 4);
+                    stats.largestChunkBytes = Math.max(stats.largestChunkBytes, length);
+                }
+            }
+            stats.usedSectors += 2;
+
+            // Count runs of free sectors, the tail of the file included
+            for (int free = used.nextClearBit(2); free < sectors; ) {
+                stats.freeGaps++;
+                int next = used.nextSetBit(free);
+                if (next < 0) {
+                    break;
+                }
+                free = used.nextClearBit(next);
+            }
+        } catch (IOException e) {
+            stats.unreadableFiles++;
+        }
+        return stats;
+    }
+
+    // The c.<x>.<z>.mcc file an oversized chunk lives in, next to its region file
+    static Path externalFile(Path regionFile, int index) {
+        Matcher matcher = REGION_NAME.matcher(regionFile.getFileName().toString());
+        if (!matcher.matches()) {
+            return null;
+        }
+        int chunkX = Integer.parseInt(matcher.group(1)) * 32 + (index & 31);
+        int chunkZ = Integer.parseInt(matcher.group(2)) * 32 + (index >> 5);
+        return regionFile.resolveSibling("c." + chunkX + "." + chunkZ + ".mcc");
+    }
+
+    static boolean isRegionFile(Path path) {
+        return REGION_NAME.matcher(path.getFileName().toString()).matches();
+    }
+}
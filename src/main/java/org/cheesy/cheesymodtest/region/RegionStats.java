@@ -0,0 +1,89 @@
+package org.cheesy.cheesymodtest.region;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Totals for one or more region files. Instances are filled in by a single thread and then combined with add().
+public class RegionStats {
+    public static final int SECTOR_BYTES = 4096;
+
+    long files;
+    long chunks;
+    long fileSectors;
+    long usedSectors;
+    long freeGaps;
+    long paddingBytes;
+    long largestChunkBytes;
+    long externalChunks;
+    long externalBytes;
+    long corruptChunks;
+    long unreadableFiles;
+    final long[] compression = new long[128];
+
+    public RegionStats add(RegionStats other) {
+        files += other.files;
+        chunks += other.chunks;
+        fileSectors += other.fileSectors;
+        usedSectors += other.usedSectors;
+        freeGaps += other.freeGaps;
+        paddingBytes += other.paddingBytes;
+        largestChunkBytes = Math.max(largestChunkBytes, other.largestChunkBytes);
+        externalChunks += other.externalChunks;
+        externalBytes += other.externalBytes;
+        corruptChunks += other.corruptChunks;
+        unreadableFiles += other.unreadableFiles;
+        for (int i = 0; i < compression.length; i++) {
+            compression[i] += other.compression[i];
+        }
+        return this;
+    }
+
+    public long wastedSectors() {
+        return fileSectors - usedSectors;
+    }
+
+    public long wastedBytes() {
+        return wastedSectors() * SECTOR_BYTES;
+    }
+
+    public List<String> describe() {
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format(Locale.ROOT, "%d region files, %d chunks, %s on disk", files, chunks, bytes(fileSectors * SECTOR_BYTES)));
+        lines.add(String.format(Locale.ROOT, "Wasted: %d free sectors (%s, %.1f%%) in %d gaps, plus %s of padding inside used sectors",
+                wastedSectors(), bytes(wastedBytes()), fileSectors == 0 ? 0.0 : wastedSectors() * 100.0 / fileSectors, freeGaps, bytes(paddingBytes)));
+        lines.add(String.format(Locale.ROOT, "Largest chunk %s, %d oversized chunks in external .mcc files (%s)",
+                bytes(largestChunkBytes), externalChunks, bytes(externalBytes)));
+        StringBuilder types = new StringBuilder("Compression:");
+        for (int i = 0; i < compression.length; i++) {
+            if (compression[i] > 0) {
+                types.append(' ').append(compressionName(i)).append('=').append(compression[i]);
+            }
+        }
+        lines.add(types.toString());
+        if (corruptChunks > 0 || unreadableFiles > 0) {
+            lines.add(String.format(Locale.ROOT, "Problems: %d chunks with bad offsets or headers, %d unreadable files", corruptChunks, unreadableFiles));
+        }
+        return lines;
+    }
+
+    // Version ids as used by RegionFileVersion
+    static String compressionName(int version) {
+        return switch (version) {
+            case RegionFileAnalyzer.VERSION_GZIP -> "gzip";
+            case RegionFileAnalyzer.VERSION_DEFLATE -> "zlib";
+            case RegionFileAnalyzer.VERSION_NONE -> "none";
+            case RegionFileAnalyzer.VERSION_LZ4 -> "lz4";
+            case RegionFileAnalyzer.VERSION_CUSTOM -> "custom";
+            default -> "unknown(" + version + ")";
+        };
+    }
+
+    static String bytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        int unit = (63 - Long.numberOfLeadingZeros(bytes)) / 10;
+        return String.format(Locale.ROOT, "%.1f %siB", bytes / (double) (1L << (unit * 10)), "KMGTPE".charAt(unit - 1));
+    }
+}
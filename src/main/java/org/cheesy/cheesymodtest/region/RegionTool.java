@@ -0,0 +1,120 @@
+package org.cheesy.cheesymodtest.region;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+// Standalone entry point for the region analyzer and compactor, runnable straight from the mod jar:
+//   java -jar cheesymodtest.jar analyze <world>/region [more region folders or .mca files...]
+//   java -jar cheesymodtest.jar compact <world>/region <output folder> [--recompress] [--threads N]
+// Compaction writes new files into the output folder, swapping them in is left to whoever runs it (with the server stopped).
+public class RegionTool {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            usage();
+            return;
+        }
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean recompress = false;
+        List<String> paths = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--recompress" -> recompress = true;
+                case "--threads" -> threads = i + 1 < args.length ? parseThreads(args[++i]) : -1;
+                default -> paths.add(args[i]);
+            }
+        }
+        if (threads <= 0) {
+            usage();
+            return;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            switch (args[0]) {
+                case "analyze" -> {
+                    List<Path> files = new ArrayList<>();
+                    for (String path : paths) {
+                        files.addAll(regionFiles(Paths.get(path)));
+                    }
+                    analyze(files, pool).describe().forEach(System.out::println);
+                }
+                case "compact" -> {
+                    if (paths.size() != 2) {
+                        usage();
+                        return;
+                    }
+                    Path source = Paths.get(paths.get(0));
+                    Path targetDir = Paths.get(paths.get(1));
+                    Path sourceDir = Files.isDirectory(source) ? source : source.toAbsolutePath().getParent();
+                    if (Files.exists(targetDir) && Files.isSameFile(sourceDir, targetDir)) {
+                        System.out.println("The output folder must not be the region folder, compaction never overwrites the source files");
+                        return;
+                    }
+                    Files.createDirectories(targetDir);
+                    List<RegionCompactor.Result> results = compact(regionFiles(source), targetDir, recompress, pool);
+                    long before = results.stream().mapToLong(RegionCompactor.Result::bytesBefore).sum();
+                    long after = results.stream().mapToLong(RegionCompactor.Result::bytesAfter).sum();
+                    System.out.printf(Locale.ROOT, "Compacted %d region files: %s -> %s (%d chunks recompressed, %d broken chunks dropped)%n",
+                            results.size(), RegionStats.bytes(before), RegionStats.bytes(after),
+                            results.stream().mapToInt(RegionCompactor.Result::recompressedChunks).sum(),
+                            results.stream().mapToInt(RegionCompactor.Result::droppedChunks).sum());
+                }
+                default -> usage();
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void usage() {
+        System.out.println("Usage:");
+        System.out.println("  analyze <region folder or .mca file>...");
+        System.out.println("  compact <region folder> <output folder> [--recompress] [--threads N]");
+    }
+
+    private static int parseThreads(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // All r.<x>.<z>.mca files in a folder, or the path itself if it is one
+    public static List<Path> regionFiles(Path path) throws IOException {
+        if (!Files.isDirectory(path)) {
+            return RegionFileAnalyzer.isRegionFile(path) ? List.of(path) : List.of();
+        }
+        try (Stream<Path> files = Files.list(path)) {
+            return files.filter(RegionFileAnalyzer::isRegionFile).sorted().toList();
+        }
+    }
+
+    // Running the parallel stream from inside the pool makes it use that pool instead of the common one
+    public static RegionStats analyze(List<Path> files, ForkJoinPool pool) {
+        return pool.submit(() -> files.parallelStream()
+                .map(RegionFileAnalyzer::analyze)
+                .reduce(new RegionStats(), (a, b) -> new RegionStats().add(a).add(b))).join();
+    }
+
+    public static List<RegionCompactor.Result> compact(List<Path> files, Path targetDir, boolean recompress, ForkJoinPool pool) {
+        return pool.submit(() -> files.parallelStream()
+                .map(file -> {
+                    try {
+                        return RegionCompactor.compact(file, targetDir, recompress);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Failed to compact " + file, e);
+                    }
+                })
+                .toList()).join();
+    }
+}
@@ -0,0 +1,238 @@
+package org.cheesy.cheesymodtest.trace;
+
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.event.AddReloadListenerEvent;
+import net.minecraftforge.event.server.ServerAboutToStartEvent;
+import net.minecraftforge.event.server.ServerStartedEvent;
+import net.minecraftforge.event.server.ServerStartingEvent;
+import net.minecraftforge.eventbus.api.Event;
+import net.minecraftforge.eventbus.api.EventPriority;
+import net.minecraftforge.eventbus.api.IEventBus;
+import net.minecraftforge.fml.config.ModConfig;
+import net.minecraftforge.fml.event.config.ModConfigEvent;
+import net.minecraftforge.fml.event.lifecycle.FMLClientSetupEvent;
+import net.minecraftforge.fml.event.lifecycle.FMLCommonSetupEvent;
+import net.minecraftforge.fml.event.lifecycle.FMLDedicatedServerSetupEvent;
+import net.minecraftforge.fml.event.lifecycle.FMLLoadCompleteEvent;
+import net.minecraftforge.fml.event.lifecycle.InterModEnqueueEvent;
+import net.minecraftforge.fml.event.lifecycle.InterModProcessEvent;
+import net.minecraftforge.fml.loading.FMLPaths;
+import net.minecraftforge.registries.RegisterEvent;
+import org.cheesy.cheesymodtest.Cheesymodtest;
+import org.cheesy.cheesymodtest.Config;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+
+// Startup tracing: records wall and CPU time of the loading phases we can observe and writes them as a Chrome
+// trace_event file (open it in chrome://tracing or https://ui.perfetto.dev).
+// Enabled with -Dcheesymodtest.startupTrace=true, or the startupTrace.enabled config option. The config is only
+// read partway through loading, so the JVM property is the only way to catch construction and registry events.
+//
+// Lifecycle events are handed to each mod separately, so we bracket every event with a HIGHEST and a LOWEST
+// priority listener: the span between them is the time our mod spent on it. Each event also drops a marker, and the
+// "FML phases" track shows the time between consecutive markers, which is where the rest of the modpack spent its time.
+public class StartupTrace {
+    private static final String PROPERTY = Cheesymodtest.MOD_ID + ".startupTrace";
+    private static final boolean FORCED = Boolean.getBoolean(PROPERTY);
+    // Timestamps are relative to JVM start, so the first span lines up with the time spent before mods even load
+    private static final long ORIGIN = System.nanoTime() - ManagementFactory.getRuntimeMXBean().getUptime() * 1_000_000L;
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final long PHASES_TID = 0;
+
+    private static final Queue<TraceEvent> EVENTS = new ConcurrentLinkedQueue<>();
+    private static final Map<String, Span> OPEN = new ConcurrentHashMap<>();
+    private static String lastMark = "JVM start";
+    private static long lastMarkNanos = ORIGIN;
+
+    private record TraceEvent(String name, String category, char phase, long startNanos, long durationNanos, long cpuNanos, long tid, String thread) {
+    }
+
+    public static boolean enabled() {
+        return FORCED || Config.startupTrace;
+    }
+
+    // Hooks up the bracketing listeners on both buses, call this first thing in the mod constructor
+    public static void register(IEventBus modEventBus) {
+        bracket(modEventBus, RegisterEvent.class, event -> "RegisterEvent " + event.getRegistryKey().location());
+        bracket(modEventBus, ModConfigEvent.class, event -> event.getClass().getSimpleName() + " " + fileName(event.getConfig()));
+        bracket(modEventBus, FMLCommonSetupEvent.class, event -> "FMLCommonSetupEvent");
+        bracket(modEventBus, FMLClientSetupEvent.class, event -> "FMLClientSetupEvent");
+        bracket(modEventBus, FMLDedicatedServerSetupEvent.class, event -> "FMLDedicatedServerSetupEvent");
+        bracket(modEventBus, InterModEnqueueEvent.class, event -> "InterModEnqueueEvent");
+        bracket(modEventBus, InterModProcessEvent.class, event -> "InterModProcessEvent");
+        bracket(modEventBus, FMLLoadCompleteEvent.class, event -> "FMLLoadCompleteEvent");
+
+        bracket(MinecraftForge.EVENT_BUS, ServerAboutToStartEvent.class, event -> "ServerAboutToStartEvent");
+        bracket(MinecraftForge.EVENT_BUS, ServerStartingEvent.class, event -> "ServerStartingEvent");
+        bracket(MinecraftForge.EVENT_BUS, ServerStartedEvent.class, event -> "ServerStartedEvent");
+        bracket(MinecraftForge.EVENT_BUS, AddReloadListenerEvent.class, event -> "AddReloadListenerEvent");
+
+        MinecraftForge.EVENT_BUS.addListener(StartupTrace::onAddReloadListener);
+        modEventBus.addListener(EventPriority.LOWEST, StartupTrace::onLoadComplete);
+        MinecraftForge.EVENT_BUS.addListener(EventPriority.LOWEST, StartupTrace::onServerStarted);
+    }
+
+    private static <T extends Event> void bracket(IEventBus bus, Class<T> type, Function<T, String> name) {
+        bus.addListener(EventPriority.HIGHEST, false, type, event -> {
+            if (enabled()) {
+                String spanName = name.apply(event);
+                mark(spanName);
+                OPEN.put(spanName, begin(spanName, "listeners"));
+            }
+        });
+        bus.addListener(EventPriority.LOWEST, false, type, event -> {
+            Span span = OPEN.remove(name.apply(event));
+            if (span != null) {
+                span.close();
+            }
+        });
+    }
+
+    private static String fileName(ModConfig config) {
+        return config == null ? "" : config.getFileName();
+    }
+
+    // Starts a span on the current thread, it has to be closed on the same thread
+    public static Span begin(String name) {
+        return begin(name, "mod");
+    }
+
+    public static Span begin(String name, String category) {
+        return enabled() ? new Span(name, category) : Span.NONE;
+    }
+
+    // Drops an instant marker and closes the phase that started at the previous marker
+    public static synchronized void mark(String name) {
+        if (!enabled()) {
+            return;
+        }
+        long now = System.nanoTime();
+        EVENTS.add(new TraceEvent(lastMark + " -> " + name, "phase", 'X', lastMarkNanos, now - lastMarkNanos, -1, PHASES_TID, "FML phases"));
+        Thread thread = Thread.currentThread();
+        EVENTS.add(new TraceEvent(name, "marker", 'i', now, 0, -1, thread.threadId(), thread.getName()));
+        lastMark = name;
+        lastMarkNanos = now;
+    }
+
+    public static class Span implements AutoCloseable {
+        static final Span NONE = new Span();
+
+        private final String name;
+        private final String category;
+        private final long startNanos;
+        private final long startCpu;
+
+        private Span() {
+            this.name = null;
+            this.category = null;
+            this.startNanos = 0;
+            this.startCpu = 0;
+        }
+
+        private Span(String name, String category) {
+            this.name = name;
+            this.category = category;
+            this.startCpu = THREADS.getCurrentThreadCpuTime();
+            this.startNanos = System.nanoTime();
+        }
+
+        @Override
+        public void close() {
+            if (name == null) {
+                return;
+            }
+            long duration = System.nanoTime() - startNanos;
+            long cpu = THREADS.getCurrentThreadCpuTime() - startCpu;
+            Thread thread = Thread.currentThread();
+            EVENTS.add(new TraceEvent(name, category, 'X', startNanos, duration, cpu, thread.threadId(), thread.getName()));
+        }
+    }
+
+    private static void onAddReloadListener(AddReloadListenerEvent event) {
+        if (enabled()) {
+            event.addListener(new TraceReloadListener());
+        }
+    }
+
+    private static void onLoadComplete(FMLLoadCompleteEvent event) {
+        write();
+    }
+
+    private static void onServerStarted(ServerStartedEvent event) {
+        write();
+    }
+
+    // Rewrites the whole trace, so the file after server start also contains everything from mod loading
+    private static void write() {
+        if (!enabled() || EVENTS.isEmpty()) {
+            return;
+        }
+        Path file = FMLPaths.GAMEDIR.get().resolve("cheesy-startup-trace.json");
+        List<TraceEvent> events = new ArrayList<>(EVENTS);
+        Map<Long, String> threads = new LinkedHashMap<>();
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[\n");
+            boolean first = true;
+            for (TraceEvent event : events) {
+                threads.putIfAbsent(event.tid(), event.thread());
+                if (!first) {
+                    writer.write(",\n");
+                }
+                first = false;
+                writer.write(String.format(Locale.ROOT, "{\"name\":\"%s\",\"cat\":\"%s\",\"ph\":\"%c\",\"ts\":%.3f,\"pid\":1,\"tid\":%d",
+                        escape(event.name()), event.category(), event.phase(), Math.max(0, event.startNanos() - ORIGIN) / 1000.0, event.tid()));
+                if (event.phase() == 'X') {
+                    writer.write(String.format(Locale.ROOT, ",\"dur\":%.3f", event.durationNanos() / 1000.0));
+                } else {
+                    writer.write(",\"s\":\"g\"");
+                }
+                writer.write(",\"args\":{\"thread\":\"" + escape(event.thread()) + "\"");
+                if (event.cpuNanos() >= 0) {
+                    writer.write(String.format(Locale.ROOT, ",\"cpuMs\":%.3f", event.cpuNanos() / 1.0e6));
+                }
+                writer.write("}}");
+            }
+            for (Map.Entry<Long, String> thread : threads.entrySet()) {
+                writer.write(String.format(Locale.ROOT, ",\n{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":%d,\"args\":{\"name\":\"%s\"}}", thread.getKey(), escape(thread.getValue())));
+            }
+            writer.write("\n]}\n");
+            Cheesymodtest.LOGGER.info("Wrote startup trace with {} events to {}", events.size(), file);
+        } catch (IOException e) {
+            Cheesymodtest.LOGGER.error("Failed to write startup trace {}", file, e);
+        }
+    }
+
+    private static String escape(String value) {
+        StringBuilder builder = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> builder.append("\\\"");
+                case '\\' -> builder.append("\\\\");
+                default -> {
+                    if (c < 0x20) {
+                        builder.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+                }
+            }
+        }
+        return builder.toString();
+    }
+}
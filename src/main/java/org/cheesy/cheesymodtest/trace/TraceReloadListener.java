@@ -0,0 +1,23 @@
+package org.cheesy.cheesymodtest.trace;
+
+import net.minecraft.server.packs.resources.PreparableReloadListener;
+import net.minecraft.server.packs.resources.ResourceManager;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+// Added to every datapack reload while tracing. Reload listeners all prepare in parallel and then wait on a shared
+// barrier, so the time from our reload() call until the barrier opens is the preparation phase of the whole reload.
+class TraceReloadListener implements PreparableReloadListener {
+
+    @Override
+    public CompletableFuture<Void> reload(PreparationBarrier barrier, ResourceManager resourceManager, Executor backgroundExecutor, Executor gameExecutor) {
+        StartupTrace.mark("datapack reload prepare");
+        return barrier.wait(null).thenRunAsync(() -> StartupTrace.mark("datapack reload apply"), gameExecutor);
+    }
+
+    @Override
+    public String getName() {
+        return "CheesyStartupTrace";
+    }
+}